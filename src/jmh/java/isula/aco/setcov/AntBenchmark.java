@@ -0,0 +1,114 @@
+package isula.aco.setcov;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solution construction operations of a single ant. A reference solution is built once per trial: visitSolution
+ * replays it from scratch, while getHeuristicValue and getNeighbourhood run on an ant holding half of it.
+ * constructSolutionWithNodeSelection builds a new solution with SetCoveringNodeSelection and uniform pheromone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AntBenchmark {
+
+    @Param({"AC_01_cover.txt", "AC_10_cover.txt", "synthetic-1000x5000", "synthetic-4000x20000"})
+    public String instanceName;
+
+    private SetCoveringEnvironment environment;
+    private List<Integer> referenceSolution;
+    private AntForSetCovering ant;
+    private AntForSetCovering halfwayAnt;
+    private ApplyLocalSearch localSearch;
+    private ApplyExchangeSearch exchangeSearch;
+    private AntForSetCovering selectingAnt;
+    private SetCoveringNodeSelection nodeSelection;
+    private BaseAntSystemConfiguration configurationProvider;
+
+    @Setup(Level.Trial)
+    public void constructReferenceSolution() throws IOException {
+        this.environment = new SetCoveringEnvironment(BenchmarkInstances.load(instanceName));
+
+        this.ant = new AntForSetCovering(this.environment);
+        BenchmarkInstances.constructSolution(this.ant, this.environment);
+        this.referenceSolution = new ArrayList<>(this.ant.getSolution());
+
+        this.halfwayAnt = new AntForSetCovering(this.environment);
+        this.halfwayAnt.clear();
+        this.referenceSolution.stream()
+                .limit(this.referenceSolution.size() / 2)
+                .forEach(candidateIndex -> this.halfwayAnt.visitNode(candidateIndex, this.environment));
+
+        this.localSearch = new ApplyLocalSearch();
+        this.localSearch.setAnt(this.ant);
+        this.exchangeSearch = new ApplyExchangeSearch();
+        this.exchangeSearch.setAnt(this.ant);
+
+        this.environment.populatePheromoneMatrix(1.0);
+        this.configurationProvider = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        this.selectingAnt = new AntForSetCovering(this.environment);
+        this.nodeSelection = new SetCoveringNodeSelection();
+        this.nodeSelection.setAnt(this.selectingAnt);
+    }
+
+    @Benchmark
+    public List<Integer> visitSolution() {
+        this.ant.clear();
+        for (Integer candidateIndex : this.referenceSolution) {
+            this.ant.visitNode(candidateIndex, this.environment);
+        }
+
+        return this.ant.getSolution();
+    }
+
+    /**
+     * Includes replaying the reference solution, as the policy modifies it. Subtract visitSolution to isolate the
+     * local search.
+     */
+    @Benchmark
+    public List<Integer> visitSolutionAndApplyLocalSearch() {
+        this.visitSolution();
+        this.localSearch.applyPolicy(this.environment, null);
+        return this.ant.getSolution();
+    }
+
+    @Benchmark
+    public List<Integer> visitSolutionAndApplyExchangeSearch() {
+        this.visitSolution();
+        this.exchangeSearch.applyPolicy(this.environment, null);
+        return this.ant.getSolution();
+    }
+
+    @Benchmark
+    public List<Integer> constructSolutionWithNodeSelection() {
+        this.selectingAnt.clear();
+        while (this.nodeSelection.applyPolicy(this.environment, this.configurationProvider)) {
+            // Every call visits one candidate.
+        }
+
+        return this.selectingAnt.getSolution();
+    }
+
+    @Benchmark
+    public void getHeuristicValue(Blackhole blackhole) {
+        for (int candidateIndex = 0; candidateIndex < this.environment.getNumberOfCandidates(); candidateIndex += 1) {
+            blackhole.consume(this.halfwayAnt.getHeuristicValue(candidateIndex, 0, this.environment));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> getNeighbourhood() {
+        return this.halfwayAnt.getNeighbourhood(this.environment);
+    }
+}
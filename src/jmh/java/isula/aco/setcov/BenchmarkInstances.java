@@ -0,0 +1,65 @@
+package isula.aco.setcov;
+
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static setcov.isula.sample.AcoSetCoveringWithIsula.PREPROCESING_TIME_LIMIT;
+
+/**
+ * Instances used by the benchmarks. Names like AC_01_cover.txt refer to files in problem_data, relative to the
+ * directory the benchmarks are launched from. Names like synthetic-1000x5000 produce a random instance with 1000
+ * samples and 5000 candidates, where every sample is covered by about SYNTHETIC_DENSITY of the candidates. Synthetic
+ * instances use a fixed seed, so every run measures the same instance.
+ */
+final class BenchmarkInstances {
+
+    static final String DATA_DIRECTORY = "problem_data/";
+    static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    private static final double SYNTHETIC_DENSITY = 0.05;
+    private static final long SYNTHETIC_SEED = 2020;
+
+    private BenchmarkInstances() {
+    }
+
+    static SetCoveringPreProcessor load(String instanceName) throws IOException {
+        if (!instanceName.startsWith(SYNTHETIC_PREFIX)) {
+            return FileUtils.initialisePreProcessorFromFile(DATA_DIRECTORY + instanceName);
+        }
+
+        String[] dimensions = instanceName.substring(SYNTHETIC_PREFIX.length()).split("x");
+        return generate(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    static SetCoveringPreProcessor generate(int numberOfSamples, int numberOfCandidates) {
+        SplittableRandom random = new SplittableRandom(SYNTHETIC_SEED);
+        int maximumCandidatesPerSample = Math.max(2, (int) (2 * SYNTHETIC_DENSITY * numberOfCandidates));
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfCandidates(numberOfCandidates);
+        preProcessor.setNumberOfSamples(numberOfSamples);
+
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            int[] candidateList = random.ints(1 + random.nextInt(maximumCandidatesPerSample), 0, numberOfCandidates)
+                    .toArray();
+            preProcessor.addCandidatesForSample(sampleIndex, candidateList);
+        }
+
+        return preProcessor;
+    }
+
+    /**
+     * Visits random candidates covering uncovered samples until the ant holds a complete solution, like an ant with
+     * no pheromone or heuristic information would.
+     */
+    static void constructSolution(AntForSetCovering ant, SetCoveringEnvironment environment) {
+        ant.clear();
+        while (!ant.isSolutionReady(environment)) {
+            List<Integer> neighbourhood = ant.getNeighbourhood(environment);
+            ant.visitNode(neighbourhood.get((int) (neighbourhood.size() * Math.random())), environment);
+        }
+    }
+}
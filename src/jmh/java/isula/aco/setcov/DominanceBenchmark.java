@@ -0,0 +1,32 @@
+package isula.aco.setcov;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DominanceBenchmark {
+
+    @Param({"AC_01_cover.txt", "AC_10_cover.txt", "synthetic-1000x5000", "synthetic-4000x20000"})
+    public String instanceName;
+
+    private SetCoveringPreProcessor preProcessor;
+
+    @Setup(Level.Trial)
+    public void loadInstance() throws IOException {
+        this.preProcessor = BenchmarkInstances.load(instanceName);
+        this.preProcessor.getIncidenceMatrix();
+    }
+
+    @Benchmark
+    public Set<Integer> findDominatedCandidates() {
+        return this.preProcessor.findDominatedCandidates();
+    }
+}
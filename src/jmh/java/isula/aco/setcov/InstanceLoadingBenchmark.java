@@ -0,0 +1,30 @@
+package isula.aco.setcov;
+
+import org.openjdk.jmh.annotations.*;
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InstanceLoadingBenchmark {
+
+    @Param({"AC_01_cover.txt", "AC_10_cover.txt"})
+    public String instanceName;
+
+    @Benchmark
+    public SetCoveringPreProcessor initialisePreProcessorFromFile() throws IOException {
+        return FileUtils.initialisePreProcessorFromFile(BenchmarkInstances.DATA_DIRECTORY + instanceName);
+    }
+
+    @Benchmark
+    public IncidenceMatrix buildIncidenceMatrix() throws IOException {
+        return FileUtils.initialisePreProcessorFromFile(BenchmarkInstances.DATA_DIRECTORY + instanceName)
+                .getIncidenceMatrix();
+    }
+}
@@ -13,26 +13,66 @@ public class AntForSetCovering extends AntWithPartialSolution<Integer, SetCoveri
     private static final Logger logger = Logger.getLogger(AntForSetCovering.class.getName());
 
     private final SetCoveringEnvironment environment;
-    private boolean[] samplesCovered;
+    private final boolean[] samplesCovered;
+
+    private final int[] uncoveredSamples;
+    private final int[] positionsInUncoveredSamples;
+    private int numberOfUncoveredSamples;
+
+    private final int[] coverageGains;
+    private final int[] solutionCoverageCounts;
+    private final int[] coveringComponentSums;
+    private final int[] sampleMarks;
+    private final int[] componentBuffer;
+    private final int[] componentBuckets;
+    private final int[] bucketOffsets;
+    private final long[] sortKeys;
+
+    private final boolean[] candidatesVisited;
+    private final SetCoveringSolution selectedCandidates;
+    private final int[] neighbourhoodBuffer;
+    private final double[] selectionWeights;
+    private final SplittableRandom random;
 
 
     public AntForSetCovering(SetCoveringEnvironment environment) {
         this(environment, environment.getMandatoryCandidates());
     }
 
+    /**
+     * Creates an ant that starts every solution from the initial solution plus the environment's mandatory candidates.
+     */
     public AntForSetCovering(SetCoveringEnvironment environment, Set<Integer> initialSolution) {
         super();
 
         this.environment = environment;
         this.samplesCovered = new boolean[environment.getNumberOfSamples()];
+        this.uncoveredSamples = new int[environment.getNumberOfSamples()];
+        this.positionsInUncoveredSamples = new int[environment.getNumberOfSamples()];
+        this.coverageGains = new int[environment.getNumberOfCandidates()];
+        this.solutionCoverageCounts = new int[environment.getNumberOfSamples()];
+        this.coveringComponentSums = new int[environment.getNumberOfSamples()];
+        this.sampleMarks = new int[environment.getNumberOfSamples()];
+        this.componentBuffer = new int[environment.getNumberOfCandidates()];
+        this.componentBuckets = new int[environment.getNumberOfCandidates()];
+        this.bucketOffsets = new int[environment.getNumberOfCandidates() + 3];
+        this.sortKeys = new long[environment.getNumberOfCandidates()];
+        this.candidatesVisited = new boolean[environment.getNumberOfCandidates()];
+        this.selectedCandidates = new SetCoveringSolution(environment.getNumberOfCandidates());
+        this.neighbourhoodBuffer = new int[environment.getNumberOfCandidates()];
+        this.selectionWeights = new double[environment.getNumberOfCandidates()];
+        this.random = new SplittableRandom();
+        this.resetCoveredSamples();
 
         this.setSolution(new ArrayList<>());
-        this.setPartialSolution(initialSolution);
+        Set<Integer> partialSolution = new HashSet<>(initialSolution);
+        partialSolution.addAll(environment.getMandatoryCandidates());
+        this.setPartialSolution(partialSolution);
     }
 
     @Override
     public void clear() {
-        this.samplesCovered = new boolean[environment.getNumberOfSamples()];
+        this.resetCoveredSamples();
         super.clear();
         logger.fine("Initial solution size: " + this.getSolution().size());
     }
@@ -47,13 +87,61 @@ public class AntForSetCovering extends AntWithPartialSolution<Integer, SetCoveri
         logger.fine("Visiting node");
         super.visitNode(candidateIndex, environment);
 
-        Set<Integer> candidateSamples = environment.getSamplesPerCandidate().get(candidateIndex);
-
-        if (candidateSamples == null) {
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        if (candidateIndex == null || candidateIndex < 0 || candidateIndex >= incidenceMatrix.getNumberOfCandidates()) {
             throw new SolutionConstructionException("Could not find samples for candidate " + candidateIndex + " .");
         }
+        this.candidatesVisited[candidateIndex] = true;
+        this.selectedCandidates.add(candidateIndex);
+
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            this.coverSample(incidenceMatrix.getSample(position));
+        }
+    }
+
+    @Override
+    public boolean isNodeVisited(Integer candidateIndex) {
+        return this.candidatesVisited[candidateIndex];
+    }
+
+    private void resetCoveredSamples() {
+        Arrays.fill(this.samplesCovered, false);
+        Arrays.fill(this.candidatesVisited, false);
+        this.selectedCandidates.clear();
+        for (int sampleIndex = 0; sampleIndex < this.uncoveredSamples.length; sampleIndex += 1) {
+            this.uncoveredSamples[sampleIndex] = sampleIndex;
+            this.positionsInUncoveredSamples[sampleIndex] = sampleIndex;
+        }
+        this.numberOfUncoveredSamples = this.uncoveredSamples.length;
+
+        int[] coverageSizes = this.environment.getCoverageSizes();
+        System.arraycopy(coverageSizes, 0, this.coverageGains, 0, coverageSizes.length);
+    }
+
+    /**
+     * Marks a sample as covered, removing it from the uncovered samples in constant time. The last uncovered sample
+     * takes the position of the removed one, so the first numberOfUncoveredSamples entries are always the pending ones.
+     * Every candidate covering the sample loses one unit of coverage gain.
+     */
+    private void coverSample(int sampleIndex) {
+        if (this.samplesCovered[sampleIndex]) {
+            return;
+        }
+
+        this.samplesCovered[sampleIndex] = true;
 
-        candidateSamples.forEach((sampleIndex) -> this.samplesCovered[sampleIndex] = true);
+        int position = this.positionsInUncoveredSamples[sampleIndex];
+        int lastUncoveredSample = this.uncoveredSamples[this.numberOfUncoveredSamples - 1];
+        this.uncoveredSamples[position] = lastUncoveredSample;
+        this.positionsInUncoveredSamples[lastUncoveredSample] = position;
+        this.numberOfUncoveredSamples -= 1;
+
+        IncidenceMatrix incidenceMatrix = this.environment.getIncidenceMatrix();
+        for (int candidatePosition = incidenceMatrix.getCandidatesStart(sampleIndex);
+             candidatePosition < incidenceMatrix.getCandidatesEnd(sampleIndex); candidatePosition += 1) {
+            this.coverageGains[incidenceMatrix.getCandidate(candidatePosition)] -= 1;
+        }
     }
 
     public boolean isSampleCovered(int sampleIndex) {
@@ -64,26 +152,85 @@ public class AntForSetCovering extends AntWithPartialSolution<Integer, SetCoveri
                                     SetCoveringEnvironment environment) {
         logger.fine("Getting heuristic value");
 
-        Set<Integer> uncoveredSamples = this.getUncoveredSamples();
-        Set<Integer> coveredByCandidate = environment.getSamplesForNonDominatedCandidate(candidateIndex);
+        return this.coverageGains[candidateIndex] / (double) this.environment.getNumberOfSamples();
+    }
+
+    /**
+     * The candidates in the current solution. Policies changing it must call updateSolution afterwards.
+     */
+    public SetCoveringSolution getSelectedCandidates() {
+        return this.selectedCandidates;
+    }
+
+    /**
+     * Rewrites the Isula solution list from the selected candidates.
+     */
+    void updateSolution() {
+        List<Integer> solution = this.getSolution();
+        solution.clear();
+        for (int position = 0; position < this.selectedCandidates.size(); position += 1) {
+            solution.add(this.selectedCandidates.get(position));
+        }
+    }
+
+    /**
+     * Scratch array for policies that count, per sample, the solution components covering it.
+     */
+    int[] getSolutionCoverageCounts() {
+        return this.solutionCoverageCounts;
+    }
+
+    /**
+     * Scratch arrays indexed by sample for the exchange search: the sum of the indexes of the components covering each
+     * sample, and the marks of the samples it is working on.
+     */
+    int[] getCoveringComponentSums() {
+        return this.coveringComponentSums;
+    }
+
+    int[] getSampleMarks() {
+        return this.sampleMarks;
+    }
+
+    /**
+     * Scratch arrays for ordering the components of a solution: the components themselves, a bucket per component,
+     * the offsets of up to numberOfCandidates + 2 buckets, and the sort keys.
+     */
+    int[] getComponentBuffer() {
+        return this.componentBuffer;
+    }
+
+    int[] getComponentBuckets() {
+        return this.componentBuckets;
+    }
+
+    int[] getBucketOffsets() {
+        return this.bucketOffsets;
+    }
 
-        Set<Integer> commonElements = uncoveredSamples
-                .stream()
-                .unordered()
-                .filter(coveredByCandidate::contains)
-                .collect(Collectors.toSet());
+    long[] getSortKeys() {
+        return this.sortKeys;
+    }
 
-        return commonElements.size() / (double) this.environment.getNumberOfSamples();
+    /**
+     * Number of samples, still uncovered by this ant, that the candidate would cover.
+     */
+    public int getCoverageGain(int candidateIndex) {
+        return this.coverageGains[candidateIndex];
     }
 
     public Set<Integer> getUncoveredSamples() {
 
-        return IntStream.range(0, this.environment.getNumberOfSamples())
-                .filter(sampleIndex -> !this.samplesCovered[sampleIndex])
+        return IntStream.range(0, this.numberOfUncoveredSamples)
+                .map(position -> this.uncoveredSamples[position])
                 .boxed()
                 .collect(Collectors.toUnmodifiableSet());
     }
 
+    public int getNumberOfUncoveredSamples() {
+        return this.numberOfUncoveredSamples;
+    }
+
     public double getSolutionCost(SetCoveringEnvironment environment) {
         if (!isSolutionReady(environment)) {
             throw new RuntimeException("Cannot calculate cost of an incomplete solution");
@@ -98,49 +245,103 @@ public class AntForSetCovering extends AntWithPartialSolution<Integer, SetCoveri
     }
 
     public boolean isSolutionReady(SetCoveringEnvironment environment) {
-        Set<Integer> uncoveredSamples = this.getUncoveredSamples();
-        int pendingSamples = uncoveredSamples.size();
-        logger.fine("Pending samples: " + pendingSamples);
-        return pendingSamples == 0;
+        logger.fine("Pending samples: " + this.numberOfUncoveredSamples);
+        return this.numberOfUncoveredSamples == 0;
     }
 
 
     public List<Integer> getNeighbourhood(SetCoveringEnvironment environment) {
-        Set<Integer> uncoveredSamples = getUncoveredSamples();
-        Optional<Integer> selectedSample = uncoveredSamples.stream()
-                .skip((int) (uncoveredSamples.size() * Math.random()))
-                .findFirst();
+        int neighbourhoodSize = this.fillNeighbourhood(environment);
 
-        if (selectedSample.isEmpty()) {
-            return Collections.emptyList();
+        List<Integer> neighbourhood = new ArrayList<>(neighbourhoodSize);
+        for (int position = 0; position < neighbourhoodSize; position += 1) {
+            neighbourhood.add(this.neighbourhoodBuffer[position]);
         }
-
-        return new ArrayList<>(getNeighbourhoodForSample(environment, selectedSample.get()));
+        return neighbourhood;
 
     }
 
     public Set<Integer> getNeighbourhoodForSample(SetCoveringEnvironment environment, Integer selectedSample) {
+        int neighbourhoodSize = this.fillNeighbourhoodForSample(environment, selectedSample);
+
+        Set<Integer> neighbourhood = new HashSet<>();
+        for (int position = 0; position < neighbourhoodSize; position += 1) {
+            neighbourhood.add(this.neighbourhoodBuffer[position]);
+        }
+        return neighbourhood;
+    }
 
-        Set<Integer> coveringCandidates = environment.getCoveringCandidates(selectedSample);
+    /**
+     * Picks a random uncovered sample and writes its neighbourhood to the buffer returned by getNeighbourhoodBuffer.
+     *
+     * @return Size of the neighbourhood, 0 if the solution is complete.
+     */
+    int fillNeighbourhood(SetCoveringEnvironment environment) {
+        if (this.numberOfUncoveredSamples == 0) {
+            return 0;
+        }
 
-        return coveringCandidates.stream()
-                .filter(candidateIndex -> !this.isNodeVisited(candidateIndex) && !environment.isDominatedCandidate(candidateIndex))
-                .collect(Collectors.toSet());
+        int selectedSample = this.uncoveredSamples[this.random.nextInt(this.numberOfUncoveredSamples)];
+        return this.fillNeighbourhoodForSample(environment, selectedSample);
     }
 
-    public Double getPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
-                                         SetCoveringEnvironment environment) {
+    /**
+     * Writes the non-visited candidates from the sample's candidate list to the neighbourhood buffer. If all of them
+     * were visited, it writes every non-visited, non-dominated candidate covering the sample instead.
+     */
+    private int fillNeighbourhoodForSample(SetCoveringEnvironment environment, int selectedSample) {
+        int neighbourhoodSize = 0;
+
+        CandidateLists candidateLists = environment.getCandidateLists();
+        for (int position = candidateLists.getStart(selectedSample);
+             position < candidateLists.getEnd(selectedSample); position += 1) {
+            int candidateIndex = candidateLists.getCandidate(position);
+            if (!this.candidatesVisited[candidateIndex]) {
+                this.neighbourhoodBuffer[neighbourhoodSize] = candidateIndex;
+                neighbourhoodSize += 1;
+            }
+        }
+
+        if (neighbourhoodSize > 0) {
+            return neighbourhoodSize;
+        }
+
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        for (int position = incidenceMatrix.getCandidatesStart(selectedSample);
+             position < incidenceMatrix.getCandidatesEnd(selectedSample); position += 1) {
+            int candidateIndex = incidenceMatrix.getCandidate(position);
+            if (!this.candidatesVisited[candidateIndex] && !environment.isDominatedCandidate(candidateIndex)) {
+                this.neighbourhoodBuffer[neighbourhoodSize] = candidateIndex;
+                neighbourhoodSize += 1;
+            }
+        }
 
+        return neighbourhoodSize;
+    }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
-        return pheromoneMatrix[solutionComponent][0];
+    /**
+     * Scratch buffers reused on every construction step: the neighbourhood written by fillNeighbourhood, and the prefix
+     * sums of the selection weights per neighbourhood position.
+     */
+    int[] getNeighbourhoodBuffer() {
+        return this.neighbourhoodBuffer;
     }
 
-    public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
-                                       SetCoveringEnvironment environment, Double value) {
+    double[] getSelectionWeights() {
+        return this.selectionWeights;
+    }
+
+    SplittableRandom getRandom() {
+        return this.random;
+    }
 
-        double[][] pheromoneMatrix = environment.getPheromoneMatrix();
-        pheromoneMatrix[solutionComponent][0] = value;
+    public Double getPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
+                                         SetCoveringEnvironment environment) {
+        return environment.getPheromoneTrailValue(solutionComponent);
+    }
 
+    public void setPheromoneTrailValue(Integer solutionComponent, Integer positionInSolution,
+                                       SetCoveringEnvironment environment, Double value) {
+        environment.setPheromoneTrailValue(solutionComponent, value);
     }
 }
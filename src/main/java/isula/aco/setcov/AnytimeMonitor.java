@@ -0,0 +1,62 @@
+package isula.aco.setcov;
+
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Offers the colony's best solution of every iteration to the shared AnytimeProgress, and ends the colony's run by
+ * throwing SolverStoppedException when the progress is stopped. It stops the progress itself when another iteration
+ * as long as the last one would end after the deadline, or after stagnationIterations iterations of this colony without
+ * a global improvement.
+ */
+public class AnytimeMonitor extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    private final AnytimeProgress progress;
+
+    private Instant lastIterationEnd;
+    private int lastSeenImprovements;
+    private int iterationsWithoutImprovement;
+
+    AnytimeMonitor(AnytimeProgress progress) {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+        this.progress = progress;
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        AntForSetCovering bestAnt = (AntForSetCovering) this.getAntColony().getBestPerformingAnt(this.getEnvironment());
+        this.progress.offer(bestAnt.getSelectedCandidates());
+
+        int improvements = this.progress.getImprovements();
+        if (improvements != this.lastSeenImprovements) {
+            this.lastSeenImprovements = improvements;
+            this.iterationsWithoutImprovement = 0;
+        } else {
+            this.iterationsWithoutImprovement += 1;
+        }
+
+        Instant now = Instant.now();
+        if (this.lastIterationEnd != null &&
+                now.plus(Duration.between(this.lastIterationEnd, now)).isAfter(this.progress.getDeadline())) {
+            this.progress.stop("the time budget would be exceeded by another iteration");
+        } else if (this.iterationsWithoutImprovement >= this.progress.getStagnationIterations()) {
+            this.progress.stop(this.iterationsWithoutImprovement + " iterations without improvement");
+        }
+        this.lastIterationEnd = now;
+
+        if (this.progress.isStopped()) {
+            throw new SolverStoppedException(this.progress.getStopReason());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AnytimeMonitor{" +
+                "iterationsWithoutImprovement=" + iterationsWithoutImprovement +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package isula.aco.setcov;
+
+import isula.aco.DaemonAction;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Global best solution of an anytime run, shared by the AnytimeMonitor of every colony. Every improvement is passed to
+ * a listener as soon as it is found, so it can be stored before the run ends. The run stops at the deadline, or when
+ * no colony has improved the global best for stagnationIterations iterations.
+ */
+public final class AnytimeProgress {
+
+    private static final Logger logger = Logger.getLogger(AnytimeProgress.class.getName());
+
+    private final Instant deadline;
+    private final int stagnationIterations;
+    private final Consumer<SetCoveringSolution> improvementListener;
+
+    private SetCoveringSolution bestSolution;
+    private int improvements;
+    private volatile String stopReason;
+
+    /**
+     * @param improvementListener Called with every new best solution, one at a time. The solution must not be modified.
+     */
+    public AnytimeProgress(Instant deadline, int stagnationIterations,
+                           Consumer<SetCoveringSolution> improvementListener) {
+        this.deadline = deadline;
+        this.stagnationIterations = stagnationIterations;
+        this.improvementListener = improvementListener;
+    }
+
+    public Supplier<DaemonAction<Integer, SetCoveringEnvironment>> createMonitors() {
+        return () -> new AnytimeMonitor(this);
+    }
+
+    /**
+     * Keeps a copy of the solution if it is smaller than the global best.
+     *
+     * @return True if it was an improvement.
+     */
+    synchronized boolean offer(SetCoveringSolution solution) {
+        if (this.bestSolution != null && solution.size() >= this.bestSolution.size()) {
+            return false;
+        }
+
+        this.bestSolution = solution.copy();
+        this.improvements += 1;
+        logger.info("New best solution of size " + this.bestSolution.size());
+        this.improvementListener.accept(this.bestSolution);
+        return true;
+    }
+
+    synchronized int getImprovements() {
+        return this.improvements;
+    }
+
+    public synchronized SetCoveringSolution getBestSolution() {
+        return this.bestSolution;
+    }
+
+    void stop(String reason) {
+        if (this.stopReason == null) {
+            logger.info("Stopping the solver: " + reason);
+            this.stopReason = reason;
+        }
+    }
+
+    public boolean isStopped() {
+        return this.stopReason != null;
+    }
+
+    public String getStopReason() {
+        return this.stopReason;
+    }
+
+    public Instant getDeadline() {
+        return this.deadline;
+    }
+
+    public int getStagnationIterations() {
+        return this.stagnationIterations;
+    }
+
+    @Override
+    public String toString() {
+        return "AnytimeProgress{" +
+                "deadline=" + deadline +
+                ", stagnationIterations=" + stagnationIterations +
+                ", improvements=" + getImprovements() +
+                ", bestSolutionSize=" + (getBestSolution() != null ? getBestSolution().size() : null) +
+                ", stopReason=" + stopReason +
+                '}';
+    }
+}
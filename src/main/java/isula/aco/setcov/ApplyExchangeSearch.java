@@ -0,0 +1,238 @@
+package isula.aco.setcov;
+
+import isula.aco.AntPolicy;
+import isula.aco.AntPolicyType;
+import isula.aco.ConfigurationProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Improves the ant's solution with 2-for-1 exchanges: a component a is replaced by a candidate c covering every sample
+ * only a covers, and another component b that c makes redundant is dropped. Components without exclusive samples are
+ * dropped directly.
+ * <p>
+ * The search keeps, per sample, how many components cover it and the sum of their indexes, which is the covering
+ * component when the count is 1. Replacements for a come from the candidates covering one of its exclusive samples,
+ * and components that may become redundant are the owners of exclusive samples covered by c. It stops when no move
+ * improves the solution, or when the move or time budget runs out. Both budgets come from the configuration when it is
+ * a SetCoveringConfigurationProvider.
+ */
+public class ApplyExchangeSearch extends AntPolicy<Integer, SetCoveringEnvironment> {
+
+    private static final Logger logger = Logger.getLogger(ApplyExchangeSearch.class.getName());
+
+    public static final int DEFAULT_MOVE_BUDGET = 20_000;
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(50);
+
+    private int[] coverageCounts;
+    private int[] coveringComponentSums;
+    private int[] sampleMarks;
+    private int currentMark;
+    private SetCoveringSolution solution;
+
+    public ApplyExchangeSearch() {
+        super(AntPolicyType.AFTER_SOLUTION_IS_READY);
+    }
+
+    @Override
+    public boolean applyPolicy(SetCoveringEnvironment environment, ConfigurationProvider configurationProvider) {
+        int remainingMoves = DEFAULT_MOVE_BUDGET;
+        Duration timeBudget = DEFAULT_TIME_BUDGET;
+        if (configurationProvider instanceof SetCoveringConfigurationProvider) {
+            remainingMoves = ((SetCoveringConfigurationProvider) configurationProvider).getExchangeMoveBudget();
+            timeBudget = ((SetCoveringConfigurationProvider) configurationProvider).getExchangeTimeBudget();
+        }
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        AntForSetCovering ant = (AntForSetCovering) this.getAnt();
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        this.solution = ant.getSelectedCandidates();
+        this.initialiseCounts(ant, incidenceMatrix);
+
+        int improvements = 0;
+        boolean improved = true;
+        while (improved && remainingMoves > 0 && System.nanoTime() < deadline) {
+            improved = false;
+
+            int solutionPosition = 0;
+            while (solutionPosition < this.solution.size() && remainingMoves > 0 && System.nanoTime() < deadline) {
+                int candidateIndex = this.solution.get(solutionPosition);
+                solutionPosition += 1;
+                if (environment.isMandatoryCandidate(candidateIndex)) {
+                    continue;
+                }
+
+                int exclusiveSamples = this.markExclusiveSamples(candidateIndex, incidenceMatrix);
+                if (exclusiveSamples == 0) {
+                    this.removeComponent(candidateIndex, incidenceMatrix);
+                    improvements += 1;
+                    improved = true;
+                    solutionPosition -= 1;
+                    continue;
+                }
+
+                int rarestSample = this.getRarestMarkedSample(candidateIndex, incidenceMatrix);
+                for (int position = incidenceMatrix.getCandidatesStart(rarestSample);
+                     position < incidenceMatrix.getCandidatesEnd(rarestSample) && remainingMoves > 0; position += 1) {
+                    int replacementIndex = incidenceMatrix.getCandidate(position);
+                    if (this.solution.contains(replacementIndex) ||
+                            environment.isDominatedCandidate(replacementIndex)) {
+                        continue;
+                    }
+
+                    remainingMoves -= 1;
+                    if (this.countMarkedSamples(replacementIndex, incidenceMatrix) == exclusiveSamples &&
+                            this.tryExchange(candidateIndex, replacementIndex, environment)) {
+                        improvements += 1;
+                        improved = true;
+                        solutionPosition -= 1;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (improvements > 0) {
+            logger.fine(improvements + " exchange moves improved a solution of size " + ant.getSolution().size());
+            ant.updateSolution();
+        }
+
+        return true;
+    }
+
+    /**
+     * The per-sample arrays are the ant's scratch buffers, shared with the other policies working on its solution, so
+     * they are cleared on every call.
+     */
+    private void initialiseCounts(AntForSetCovering ant, IncidenceMatrix incidenceMatrix) {
+        this.coverageCounts = ant.getSolutionCoverageCounts();
+        this.coveringComponentSums = ant.getCoveringComponentSums();
+        this.sampleMarks = ant.getSampleMarks();
+        this.currentMark = 0;
+
+        Arrays.fill(this.coverageCounts, 0);
+        Arrays.fill(this.coveringComponentSums, 0);
+        Arrays.fill(this.sampleMarks, 0);
+        for (int solutionPosition = 0; solutionPosition < this.solution.size(); solutionPosition += 1) {
+            this.countComponent(this.solution.get(solutionPosition), incidenceMatrix, 1);
+        }
+    }
+
+    /**
+     * The replacement takes the component's position, so trying an exchange never reorders the solution.
+     */
+    private void replaceComponent(int componentIndex, int replacementIndex, IncidenceMatrix incidenceMatrix) {
+        this.solution.replace(componentIndex, replacementIndex);
+        this.countComponent(componentIndex, incidenceMatrix, -1);
+        this.countComponent(replacementIndex, incidenceMatrix, 1);
+    }
+
+    private void removeComponent(int candidateIndex, IncidenceMatrix incidenceMatrix) {
+        this.solution.remove(candidateIndex);
+        this.countComponent(candidateIndex, incidenceMatrix, -1);
+    }
+
+    private void countComponent(int candidateIndex, IncidenceMatrix incidenceMatrix, int increment) {
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            this.coverageCounts[sampleIndex] += increment;
+            this.coveringComponentSums[sampleIndex] += increment * candidateIndex;
+        }
+    }
+
+    /**
+     * Marks the samples only covered by the component, and returns how many there are.
+     */
+    private int markExclusiveSamples(int candidateIndex, IncidenceMatrix incidenceMatrix) {
+        this.currentMark += 1;
+        if (this.currentMark == 0) {
+            Arrays.fill(this.sampleMarks, 0);
+            this.currentMark = 1;
+        }
+
+        int exclusiveSamples = 0;
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            if (this.coverageCounts[sampleIndex] == 1) {
+                this.sampleMarks[sampleIndex] = this.currentMark;
+                exclusiveSamples += 1;
+            }
+        }
+
+        return exclusiveSamples;
+    }
+
+    private int getRarestMarkedSample(int candidateIndex, IncidenceMatrix incidenceMatrix) {
+        int rarestSample = -1;
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            if (this.sampleMarks[sampleIndex] == this.currentMark && (rarestSample < 0 ||
+                    incidenceMatrix.getNumberOfCoveringCandidates(sampleIndex) <
+                            incidenceMatrix.getNumberOfCoveringCandidates(rarestSample))) {
+                rarestSample = sampleIndex;
+            }
+        }
+
+        return rarestSample;
+    }
+
+    private int countMarkedSamples(int candidateIndex, IncidenceMatrix incidenceMatrix) {
+        int markedSamples = 0;
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            if (this.sampleMarks[incidenceMatrix.getSample(position)] == this.currentMark) {
+                markedSamples += 1;
+            }
+        }
+
+        return markedSamples;
+    }
+
+    /**
+     * Replaces the component with the replacement, which covers all its exclusive samples. The exchange is kept only if
+     * another component becomes redundant and can be dropped.
+     */
+    private boolean tryExchange(int componentIndex, int replacementIndex, SetCoveringEnvironment environment) {
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        this.replaceComponent(componentIndex, replacementIndex, incidenceMatrix);
+
+        for (int position = incidenceMatrix.getSamplesStart(replacementIndex);
+             position < incidenceMatrix.getSamplesEnd(replacementIndex); position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            if (this.coverageCounts[sampleIndex] != 2) {
+                continue;
+            }
+
+            int redundantIndex = this.coveringComponentSums[sampleIndex] - replacementIndex;
+            if (!environment.isMandatoryCandidate(redundantIndex) &&
+                    this.isRedundant(redundantIndex, incidenceMatrix)) {
+                this.removeComponent(redundantIndex, incidenceMatrix);
+                return true;
+            }
+        }
+
+        this.replaceComponent(replacementIndex, componentIndex, incidenceMatrix);
+        return false;
+    }
+
+    private boolean isRedundant(int candidateIndex, IncidenceMatrix incidenceMatrix) {
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            if (this.coverageCounts[incidenceMatrix.getSample(position)] < 2) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplyExchangeSearch{}";
+    }
+}
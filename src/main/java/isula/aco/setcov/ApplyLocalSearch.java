@@ -4,15 +4,41 @@ import isula.aco.AntPolicy;
 import isula.aco.AntPolicyType;
 import isula.aco.ConfigurationProvider;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.logging.Logger;
 
+/**
+ * Removes redundant components from the ant's solution. It counts, for every sample, how many components cover it: a
+ * component is redundant when all its samples are covered at least twice. Components are checked in the configured
+ * order and removed greedily, updating the counts, so the whole search is linear in the incidences of the solution.
+ */
 public class ApplyLocalSearch extends AntPolicy<Integer, SetCoveringEnvironment> {
 
     private static final Logger logger = Logger.getLogger(ApplyLocalSearch.class.getName());
 
+    public enum RemovalOrder {
+        /**
+         * Components in the order they were added to the solution.
+         */
+        SOLUTION_ORDER,
+        /**
+         * Components whose least covered sample has the highest count first. Ties go to the component covering fewer
+         * samples, as removing it lowers fewer counts.
+         */
+        MOST_REDUNDANT_FIRST,
+        RANDOM
+    }
+
+    private final RemovalOrder removalOrder;
+
     public ApplyLocalSearch() {
+        this(RemovalOrder.MOST_REDUNDANT_FIRST);
+    }
+
+    public ApplyLocalSearch(RemovalOrder removalOrder) {
         super(AntPolicyType.AFTER_SOLUTION_IS_READY);
+        this.removalOrder = removalOrder;
     }
 
     @Override
@@ -21,33 +47,44 @@ public class ApplyLocalSearch extends AntPolicy<Integer, SetCoveringEnvironment>
         logger.fine("Staring local search");
 
         AntForSetCovering ant = (AntForSetCovering) this.getAnt();
-        List<Integer> currentSolution = ant.getSolution();
-        Set<Integer> componentsToRemove = new HashSet<>();
-        for (Integer candidateIndex : currentSolution) {
-
-            if (candidateIndex != null) {
-                Set<Integer> exclusivelyCovered = new HashSet<>(
-                        environment.getSamplesForNonDominatedCandidate(candidateIndex));
-
-                for (Integer opponentIndex : currentSolution) {
-                    if (opponentIndex != null && !opponentIndex.equals(candidateIndex) &&
-                            !componentsToRemove.contains(opponentIndex)) {
-                        Set<Integer> coveredByOpponent = environment.getSamplesForNonDominatedCandidate(opponentIndex);
-                        exclusivelyCovered.removeAll(coveredByOpponent);
-
-                        if (exclusivelyCovered.size() == 0) {
-                            componentsToRemove.add(candidateIndex);
-                            break;
-                        }
-                    }
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        SetCoveringSolution currentSolution = ant.getSelectedCandidates();
+
+        int[] coverageCounts = ant.getSolutionCoverageCounts();
+        Arrays.fill(coverageCounts, 0);
+        int[] solutionComponents = ant.getComponentBuffer();
+        int numberOfComponents = 0;
+        for (int solutionPosition = 0; solutionPosition < currentSolution.size(); solutionPosition += 1) {
+            int candidateIndex = currentSolution.get(solutionPosition);
+            if (!environment.isMandatoryCandidate(candidateIndex)) {
+                solutionComponents[numberOfComponents] = candidateIndex;
+                numberOfComponents += 1;
+            }
+
+            for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+                 position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+                coverageCounts[incidenceMatrix.getSample(position)] += 1;
+            }
+        }
+
+        this.sortComponents(solutionComponents, numberOfComponents, currentSolution.size(), coverageCounts,
+                incidenceMatrix, ant);
+        int originalSize = currentSolution.size();
+        for (int componentPosition = 0; componentPosition < numberOfComponents; componentPosition += 1) {
+            int candidateIndex = solutionComponents[componentPosition];
+            if (getMinimumCoverageCount(candidateIndex, coverageCounts, incidenceMatrix) >= 2) {
+                for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+                     position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+                    coverageCounts[incidenceMatrix.getSample(position)] -= 1;
                 }
+                currentSolution.remove(candidateIndex);
             }
         }
 
-        if (componentsToRemove.size() > 0) {
-            logger.fine("Removing " + componentsToRemove.size() +
-                    " from a solution of size " + ant.getSolutionCost(environment));
-            ant.getSolution().removeAll(componentsToRemove);
+        if (currentSolution.size() < originalSize) {
+            logger.fine("Removing " + (originalSize - currentSolution.size()) +
+                    " from a solution of size " + originalSize);
+            ant.updateSolution();
         }
 
         logger.fine("Ending local search");
@@ -56,8 +93,90 @@ public class ApplyLocalSearch extends AntPolicy<Integer, SetCoveringEnvironment>
         return true;
     }
 
+    /**
+     * Orders the first numberOfComponents entries of components in place, using the ant's scratch buffers.
+     */
+    private void sortComponents(int[] components, int numberOfComponents, int solutionSize, int[] coverageCounts,
+                                IncidenceMatrix incidenceMatrix, AntForSetCovering ant) {
+        switch (this.removalOrder) {
+            case MOST_REDUNDANT_FIRST:
+                sortByRedundancy(components, numberOfComponents, solutionSize, coverageCounts, incidenceMatrix, ant);
+                break;
+            case RANDOM:
+                SplittableRandom random = ant.getRandom();
+                for (int position = numberOfComponents - 1; position > 0; position -= 1) {
+                    int otherPosition = random.nextInt(position + 1);
+                    int component = components[position];
+                    components[position] = components[otherPosition];
+                    components[otherPosition] = component;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Counting sort by minimum coverage count, highest first. Counts never exceed the solution size, so there are
+     * solutionSize + 2 buckets, the last one for components covering no samples. Within a bucket, components are
+     * sorted by coverage size on primitive keys holding the coverage size in the high half and the candidate in the
+     * low half.
+     */
+    private static void sortByRedundancy(int[] components, int numberOfComponents, int solutionSize,
+                                         int[] coverageCounts, IncidenceMatrix incidenceMatrix,
+                                         AntForSetCovering ant) {
+        int numberOfBuckets = solutionSize + 2;
+        int[] bucketOffsets = ant.getBucketOffsets();
+        Arrays.fill(bucketOffsets, 0, numberOfBuckets + 1, 0);
+        int[] componentBuckets = ant.getComponentBuckets();
+        for (int position = 0; position < numberOfComponents; position += 1) {
+            int minimumCoverageCount = getMinimumCoverageCount(components[position], coverageCounts, incidenceMatrix);
+            int bucket = numberOfBuckets - 1 - Math.min(minimumCoverageCount, numberOfBuckets - 1);
+            componentBuckets[position] = bucket;
+            bucketOffsets[bucket + 1] += 1;
+        }
+
+        for (int bucket = 0; bucket < numberOfBuckets; bucket += 1) {
+            bucketOffsets[bucket + 1] += bucketOffsets[bucket];
+        }
+
+        // Filling a bucket moves its offset to its end, which is the start of the next one.
+        long[] sortKeys = ant.getSortKeys();
+        for (int position = 0; position < numberOfComponents; position += 1) {
+            int candidateIndex = components[position];
+            sortKeys[bucketOffsets[componentBuckets[position]]++] =
+                    ((long) incidenceMatrix.getCoverageSize(candidateIndex) << Integer.SIZE) | candidateIndex;
+        }
+
+        int bucketStart = 0;
+        for (int bucket = 0; bucket < numberOfBuckets; bucket += 1) {
+            Arrays.sort(sortKeys, bucketStart, bucketOffsets[bucket]);
+            bucketStart = bucketOffsets[bucket];
+        }
+        for (int position = 0; position < numberOfComponents; position += 1) {
+            components[position] = (int) sortKeys[position];
+        }
+    }
+
+    /**
+     * Lowest count among the samples of a candidate. Candidates covering no samples get Integer.MAX_VALUE, as removing
+     * them uncovers nothing.
+     */
+    private static int getMinimumCoverageCount(int candidateIndex, int[] coverageCounts,
+                                               IncidenceMatrix incidenceMatrix) {
+        int minimumCoverageCount = Integer.MAX_VALUE;
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex) && minimumCoverageCount >= 2; position += 1) {
+            minimumCoverageCount = Math.min(minimumCoverageCount, coverageCounts[incidenceMatrix.getSample(position)]);
+        }
+
+        return minimumCoverageCount;
+    }
+
     @Override
     public String toString() {
-        return "ApplyLocalSearch{}";
+        return "ApplyLocalSearch{" +
+                "removalOrder=" + removalOrder +
+                '}';
     }
 }
@@ -0,0 +1,80 @@
+package isula.aco.setcov;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * For every sample, the non-dominated candidates covering it that cover the most samples, up to a fixed list size.
+ * Ties go to the lowest index. Lists are stored in the same CSR layout as IncidenceMatrix.
+ */
+final class CandidateLists {
+
+    static final int DEFAULT_LIST_SIZE = 20;
+
+    private final int listSize;
+    private final int[] listOffsets;
+    private final int[] candidates;
+
+    CandidateLists(IncidenceMatrix incidenceMatrix, Set<Integer> dominatedCandidates, int listSize) {
+        this.listSize = listSize;
+
+        BitSet dominated = new BitSet(incidenceMatrix.getNumberOfCandidates());
+        dominatedCandidates.forEach(dominated::set);
+
+        int numberOfSamples = incidenceMatrix.getNumberOfSamples();
+        this.listOffsets = new int[numberOfSamples + 1];
+        int[][] lists = new int[numberOfSamples][];
+        long[] rankingKeys = new long[0];
+
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            int coveringCandidates = incidenceMatrix.getNumberOfCoveringCandidates(sampleIndex);
+            if (rankingKeys.length < coveringCandidates) {
+                rankingKeys = new long[coveringCandidates];
+            }
+
+            int rankedCandidates = 0;
+            for (int position = incidenceMatrix.getCandidatesStart(sampleIndex);
+                 position < incidenceMatrix.getCandidatesEnd(sampleIndex); position += 1) {
+                int candidateIndex = incidenceMatrix.getCandidate(position);
+                if (!dominated.get(candidateIndex)) {
+                    long inverseCoverage = Integer.MAX_VALUE - incidenceMatrix.getCoverageSize(candidateIndex);
+                    rankingKeys[rankedCandidates] = inverseCoverage << Integer.SIZE | candidateIndex;
+                    rankedCandidates += 1;
+                }
+            }
+            Arrays.sort(rankingKeys, 0, rankedCandidates);
+
+            lists[sampleIndex] = new int[Math.min(rankedCandidates, listSize)];
+            for (int rank = 0; rank < lists[sampleIndex].length; rank += 1) {
+                lists[sampleIndex][rank] = (int) rankingKeys[rank];
+            }
+            this.listOffsets[sampleIndex + 1] = this.listOffsets[sampleIndex] + lists[sampleIndex].length;
+        }
+
+        this.candidates = new int[this.listOffsets[numberOfSamples]];
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            System.arraycopy(lists[sampleIndex], 0, this.candidates, this.listOffsets[sampleIndex],
+                    lists[sampleIndex].length);
+        }
+    }
+
+    int getListSize() {
+        return this.listSize;
+    }
+
+    int getStart(int sampleIndex) {
+        return this.listOffsets[sampleIndex];
+    }
+
+    int getEnd(int sampleIndex) {
+        return this.listOffsets[sampleIndex + 1];
+    }
+
+    /**
+     * Candidate at a position between getStart and getEnd of a sample, by decreasing coverage size.
+     */
+    int getCandidate(int position) {
+        return this.candidates[position];
+    }
+}
@@ -0,0 +1,68 @@
+package isula.aco.setcov;
+
+import isula.aco.Ant;
+import isula.aco.AntColony;
+import isula.aco.ConfigurationProvider;
+import isula.aco.Environment;
+import isula.aco.exception.SolutionConstructionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A colony whose ants build their solutions concurrently on an executor. buildSolutions returns only after every ant
+ * has finished, including its AFTER_SOLUTION_IS_READY policies, so daemon actions never see a partial iteration.
+ * <p>
+ * Ants must not share mutable state: each one needs its own random generator and scratch buffers, and the environment
+ * is only read during construction. Without an executor, ants are built one after the other as in AntColony.
+ */
+public abstract class ConcurrentAntColony<C, E extends Environment> extends AntColony<C, E> {
+
+    private final ExecutorService constructionExecutor;
+
+    public ConcurrentAntColony(int numberOfAnts, ExecutorService constructionExecutor) {
+        super(numberOfAnts);
+        this.constructionExecutor = constructionExecutor;
+    }
+
+    @Override
+    public void buildSolutions(E environment, ConfigurationProvider configurationProvider) {
+        if (this.constructionExecutor == null) {
+            super.buildSolutions(environment, configurationProvider);
+            return;
+        }
+
+        List<Callable<Void>> constructionTasks = new ArrayList<>(this.getHive().size());
+        for (Ant<C, E> ant : this.getHive()) {
+            constructionTasks.add(() -> {
+                while (!ant.isSolutionReady(environment)) {
+                    ant.selectNextNode(environment, configurationProvider);
+                }
+                ant.doAfterSolutionIsReady(environment, configurationProvider);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> constructionResult : this.constructionExecutor.invokeAll(constructionTasks)) {
+                constructionResult.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolutionConstructionException("Interrupted while ants were building their solutions.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SolutionConstructionException("An ant failed to build its solution: " + e.getCause());
+        }
+    }
+
+    public ExecutorService getConstructionExecutor() {
+        return this.constructionExecutor;
+    }
+}
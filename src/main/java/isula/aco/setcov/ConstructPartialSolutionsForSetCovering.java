@@ -2,9 +2,8 @@ package isula.aco.setcov;
 
 import isula.aco.algorithms.iteratedants.ConstructPartialSolution;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import static setcov.isula.sample.IteratedAntsForSetCovering.REMOVAL_FACTOR;
 
@@ -17,17 +16,25 @@ public class ConstructPartialSolutionsForSetCovering extends ConstructPartialSol
         return (int) (this.getAnt().getSolution().size() * REMOVAL_FACTOR);
     }
 
+    /**
+     * Removes the candidates at the given positions, except mandatory candidates: they might cover no sample left after
+     * instance reduction, so ants would never add them back.
+     */
     @Override
     public List<Integer> getNewPartialSolution(List<Integer> indexesForRemoval) {
         List<Integer> currentSolution = getAnt().getSolution();
-        List<Integer> candidatesToRemove = indexesForRemoval
-                .stream()
-                .mapToInt(currentSolution::get)
-                .boxed()
-                .collect(Collectors.toList());
-
-        List<Integer> newPartialSolution = new ArrayList<>(currentSolution);
-        newPartialSolution.removeAll(candidatesToRemove);
-        return newPartialSolution;
+        SetCoveringEnvironment environment = ((AntForSetCovering) getAnt()).getEnvironment();
+        Set<Integer> mandatoryCandidates = environment.getMandatoryCandidates();
+
+        SetCoveringSolution newPartialSolution = SetCoveringSolution.fromList(currentSolution,
+                environment.getNumberOfCandidates());
+        for (Integer indexForRemoval : indexesForRemoval) {
+            Integer candidateIndex = currentSolution.get(indexForRemoval);
+            if (candidateIndex != null && !mandatoryCandidates.contains(candidateIndex)) {
+                newPartialSolution.remove(candidateIndex);
+            }
+        }
+
+        return newPartialSolution.toList();
     }
 }
@@ -0,0 +1,210 @@
+package isula.aco.setcov;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Finds candidates whose covered samples are a subset of the samples covered by another candidate. When two
+ * candidates cover the same samples, the one with the lowest index is considered dominated.
+ * <p>
+ * Each candidate is represented as a long[] bitset over samples, and subset tests run word by word over the span of
+ * the smaller candidate. A dominating candidate must cover every sample of the dominated one, so only candidates
+ * covering its rarest sample, and covering at least as many samples, are compared.
+ * <p>
+ * The analysis only sees candidates and samples of a matrix. Running it on a transposed matrix gives the same
+ * relations between samples.
+ */
+final class DominanceAnalysis {
+
+    private static final Logger logger = Logger.getLogger(DominanceAnalysis.class.getName());
+
+    private static final long MAXIMUM_BITSET_WORDS = 1L << 27;
+    private static final int ANALYSIS_BLOCK_SIZE = 1024;
+
+    private final IncidenceMatrix incidenceMatrix;
+    private final int wordsPerCandidate;
+    private final long[] coverageBits;
+    private final int maximumCoverageSize;
+
+    DominanceAnalysis(IncidenceMatrix incidenceMatrix) {
+        this.incidenceMatrix = incidenceMatrix;
+        this.wordsPerCandidate = (incidenceMatrix.getNumberOfSamples() + Long.SIZE - 1) / Long.SIZE;
+        this.coverageBits = this.createCoverageBits();
+        this.maximumCoverageSize = IntStream.range(0, incidenceMatrix.getNumberOfCandidates())
+                .map(incidenceMatrix::getCoverageSize)
+                .max()
+                .orElse(0);
+    }
+
+    private long[] createCoverageBits() {
+        long totalWords = (long) this.wordsPerCandidate * this.incidenceMatrix.getNumberOfCandidates();
+        if (totalWords > MAXIMUM_BITSET_WORDS) {
+            logger.warning("Instance too large for bitset dominance analysis (" + totalWords +
+                    " words). Falling back to sorted sample comparison.");
+            return null;
+        }
+
+        long[] coverageBits = new long[(int) totalWords];
+        for (int candidateIndex = 0; candidateIndex < this.incidenceMatrix.getNumberOfCandidates(); candidateIndex += 1) {
+            int candidateOffset = candidateIndex * this.wordsPerCandidate;
+            for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+                 position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+                int sampleIndex = incidenceMatrix.getSample(position);
+                coverageBits[candidateOffset + (sampleIndex >>> 6)] |= 1L << sampleIndex;
+            }
+        }
+
+        return coverageBits;
+    }
+
+    /**
+     * Continues an analysis from the checkpoint's next candidate, or starts it from a new checkpoint. Candidates not
+     * reached before the deadline are reported as non-dominated. Candidates are processed in index order, in blocks
+     * of ANALYSIS_BLOCK_SIZE. Each block runs in parallel, with every worker accumulating its findings in its own
+     * BitSet. After each block the checkpoint is updated and handed to the listener. No new block starts after the
+     * deadline, so the analysed candidates are always a prefix of the candidate list.
+     */
+    void resume(DominanceCheckpoint checkpoint, Instant deadline, Consumer<DominanceCheckpoint> progressListener) {
+        int numberOfCandidates = this.incidenceMatrix.getNumberOfCandidates();
+        int reportedPercentage = 100 * checkpoint.getNextCandidate() / Math.max(numberOfCandidates, 1);
+
+        while (!checkpoint.isComplete() && Instant.now().isBefore(deadline)) {
+            int blockStart = checkpoint.getNextCandidate();
+            int blockEnd = Math.min(blockStart + ANALYSIS_BLOCK_SIZE, numberOfCandidates);
+
+            BitSet dominatedInBlock = IntStream.range(blockStart, blockEnd)
+                    .parallel()
+                    .filter(this::isDominated)
+                    .collect(BitSet::new, BitSet::set, BitSet::or);
+            checkpoint.recordBlock(blockEnd, dominatedInBlock);
+            progressListener.accept(checkpoint);
+
+            int percentage = 100 * blockEnd / numberOfCandidates;
+            if (percentage / 10 > reportedPercentage / 10) {
+                logger.info("Dominance analysis progress: " + blockEnd + " of " + numberOfCandidates + " candidates.");
+                reportedPercentage = percentage;
+            }
+        }
+
+        if (!checkpoint.isComplete()) {
+            logger.warning("Dominance analysis time limit reached. " +
+                    (numberOfCandidates - checkpoint.getNextCandidate()) + " candidates were not analysed.");
+        }
+    }
+
+    /**
+     * Finds candidates covering every sample of another candidate, the reverse of the dominance relation.
+     * Among identical candidates, all but the lowest index are reported. Candidates covering no samples are never
+     * used as a reference. Workers mark their findings in their own BitSet.
+     */
+    BitSet findSupersetCandidates() {
+        return IntStream.range(0, this.incidenceMatrix.getNumberOfCandidates())
+                .parallel()
+                .collect(BitSet::new, this::markSupersetCandidates, BitSet::or);
+    }
+
+    private void markSupersetCandidates(BitSet supersetCandidates, int candidateIndex) {
+        int coverageSize = this.incidenceMatrix.getCoverageSize(candidateIndex);
+        if (coverageSize == 0) {
+            return;
+        }
+
+        int rarestSample = this.getRarestSample(candidateIndex);
+        for (int position = incidenceMatrix.getCandidatesStart(rarestSample);
+             position < incidenceMatrix.getCandidatesEnd(rarestSample); position += 1) {
+            int opponentIndex = incidenceMatrix.getCandidate(position);
+            int opponentCoverageSize = incidenceMatrix.getCoverageSize(opponentIndex);
+
+            boolean canContain = opponentCoverageSize > coverageSize ||
+                    (opponentCoverageSize == coverageSize && opponentIndex > candidateIndex);
+            if (canContain && this.covers(opponentIndex, candidateIndex)) {
+                supersetCandidates.set(opponentIndex);
+            }
+        }
+    }
+
+    boolean isDominated(int candidateIndex) {
+        int coverageSize = this.incidenceMatrix.getCoverageSize(candidateIndex);
+        if (coverageSize == 0) {
+            return candidateIndex < this.incidenceMatrix.getNumberOfCandidates() - 1 || this.maximumCoverageSize > 0;
+        }
+
+        int rarestSample = this.getRarestSample(candidateIndex);
+        for (int position = incidenceMatrix.getCandidatesStart(rarestSample);
+             position < incidenceMatrix.getCandidatesEnd(rarestSample); position += 1) {
+            int opponentIndex = incidenceMatrix.getCandidate(position);
+            int opponentCoverageSize = incidenceMatrix.getCoverageSize(opponentIndex);
+
+            boolean canDominate = opponentCoverageSize > coverageSize ||
+                    (opponentCoverageSize == coverageSize && opponentIndex > candidateIndex);
+            if (canDominate && this.covers(opponentIndex, candidateIndex)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int getRarestSample(int candidateIndex) {
+        int rarestSample = -1;
+        int rarestCoverage = Integer.MAX_VALUE;
+
+        for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+             position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            int sampleCoverage = incidenceMatrix.getNumberOfCoveringCandidates(sampleIndex);
+            if (sampleCoverage < rarestCoverage) {
+                rarestSample = sampleIndex;
+                rarestCoverage = sampleCoverage;
+            }
+        }
+
+        return rarestSample;
+    }
+
+    /**
+     * True if the opponent covers every sample covered by the candidate.
+     */
+    private boolean covers(int opponentIndex, int candidateIndex) {
+        int samplesStart = incidenceMatrix.getSamplesStart(candidateIndex);
+        int samplesEnd = incidenceMatrix.getSamplesEnd(candidateIndex);
+
+        if (this.coverageBits == null) {
+            return this.coversBySortedSamples(opponentIndex, samplesStart, samplesEnd);
+        }
+
+        int firstWord = incidenceMatrix.getSample(samplesStart) >>> 6;
+        int lastWord = incidenceMatrix.getSample(samplesEnd - 1) >>> 6;
+        int candidateOffset = candidateIndex * this.wordsPerCandidate;
+        int opponentOffset = opponentIndex * this.wordsPerCandidate;
+
+        for (int word = firstWord; word <= lastWord; word += 1) {
+            if ((this.coverageBits[candidateOffset + word] & ~this.coverageBits[opponentOffset + word]) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean coversBySortedSamples(int opponentIndex, int samplesStart, int samplesEnd) {
+        int opponentPosition = incidenceMatrix.getSamplesStart(opponentIndex);
+        int opponentEnd = incidenceMatrix.getSamplesEnd(opponentIndex);
+
+        for (int position = samplesStart; position < samplesEnd; position += 1) {
+            int sampleIndex = incidenceMatrix.getSample(position);
+            while (opponentPosition < opponentEnd && incidenceMatrix.getSample(opponentPosition) < sampleIndex) {
+                opponentPosition += 1;
+            }
+
+            if (opponentPosition == opponentEnd || incidenceMatrix.getSample(opponentPosition) != sampleIndex) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package isula.aco.setcov;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.logging.Logger;
+
+/**
+ * Progress of a dominance analysis: candidates before nextCandidate are analysed, and the dominated ones among them
+ * are set in dominatedCandidates. It is tied to an instance through the fingerprint of its incidence matrix.
+ */
+final class DominanceCheckpoint {
+
+    private static final Logger logger = Logger.getLogger(DominanceCheckpoint.class.getName());
+
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private final long instanceFingerprint;
+    private final int numberOfCandidates;
+    private final BitSet dominatedCandidates;
+    private int nextCandidate;
+
+    DominanceCheckpoint(long instanceFingerprint, int numberOfCandidates) {
+        this(instanceFingerprint, numberOfCandidates, new BitSet(numberOfCandidates), 0);
+    }
+
+    private DominanceCheckpoint(long instanceFingerprint, int numberOfCandidates, BitSet dominatedCandidates,
+                                int nextCandidate) {
+        this.instanceFingerprint = instanceFingerprint;
+        this.numberOfCandidates = numberOfCandidates;
+        this.dominatedCandidates = dominatedCandidates;
+        this.nextCandidate = nextCandidate;
+    }
+
+    /**
+     * Name of the checkpoint file for an instance, placed next to the instance file.
+     */
+    static Path getCheckpointFile(Path instanceFile, long instanceFingerprint) {
+        return instanceFile.resolveSibling(instanceFile.getFileName() + ".dominance-" +
+                Long.toHexString(instanceFingerprint));
+    }
+
+    /**
+     * Reads a checkpoint, or returns an empty one if the file is missing, unreadable or belongs to another instance.
+     */
+    static DominanceCheckpoint loadOrCreate(Path checkpointFile, long instanceFingerprint, int numberOfCandidates) {
+        if (!Files.exists(checkpointFile)) {
+            return new DominanceCheckpoint(instanceFingerprint, numberOfCandidates);
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            int fileFormatVersion = input.readInt();
+            long fileFingerprint = input.readLong();
+            int fileCandidates = input.readInt();
+            if (fileFormatVersion != FILE_FORMAT_VERSION || fileFingerprint != instanceFingerprint ||
+                    fileCandidates != numberOfCandidates) {
+                logger.warning("Ignoring dominance checkpoint " + checkpointFile + ": it belongs to another instance.");
+                return new DominanceCheckpoint(instanceFingerprint, numberOfCandidates);
+            }
+
+            int nextCandidate = input.readInt();
+            long[] words = new long[input.readInt()];
+            for (int wordIndex = 0; wordIndex < words.length; wordIndex += 1) {
+                words[wordIndex] = input.readLong();
+            }
+
+            logger.info("Resuming dominance analysis from " + checkpointFile + " at candidate " + nextCandidate +
+                    " of " + numberOfCandidates);
+            return new DominanceCheckpoint(instanceFingerprint, numberOfCandidates, BitSet.valueOf(words),
+                    nextCandidate);
+        } catch (IOException e) {
+            logger.warning("Could not read dominance checkpoint " + checkpointFile + ": " + e.getMessage());
+            return new DominanceCheckpoint(instanceFingerprint, numberOfCandidates);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first, so an interrupted write never replaces a valid checkpoint.
+     */
+    void save(Path checkpointFile) {
+        Path temporaryFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeLong(this.instanceFingerprint);
+            output.writeInt(this.numberOfCandidates);
+            output.writeInt(this.nextCandidate);
+
+            long[] words = this.dominatedCandidates.toLongArray();
+            output.writeInt(words.length);
+            for (long word : words) {
+                output.writeLong(word);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not write dominance checkpoint " + checkpointFile + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temporaryFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Could not write dominance checkpoint " + checkpointFile + ": " + e.getMessage());
+        }
+    }
+
+    void recordBlock(int blockEnd, BitSet dominatedInBlock) {
+        this.dominatedCandidates.or(dominatedInBlock);
+        this.nextCandidate = blockEnd;
+    }
+
+    int getNextCandidate() {
+        return this.nextCandidate;
+    }
+
+    boolean isComplete() {
+        return this.nextCandidate >= this.numberOfCandidates;
+    }
+
+    BitSet getDominatedCandidates() {
+        return (BitSet) this.dominatedCandidates.clone();
+    }
+}
@@ -0,0 +1,260 @@
+package isula.aco.setcov;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable incidence between candidates and samples, stored in compressed sparse row (CSR) format for both
+ * directions. The samples covered by candidate c are samplesByCandidate[sampleOffsets[c]] up to
+ * samplesByCandidate[sampleOffsets[c + 1] - 1], sorted in ascending order. Candidates per sample follow the same layout.
+ */
+public final class IncidenceMatrix {
+
+    private final int numberOfCandidates;
+    private final int numberOfSamples;
+
+    private final int[] sampleOffsets;
+    private final int[] samplesByCandidate;
+
+    private final int[] candidateOffsets;
+    private final int[] candidatesBySample;
+
+    private volatile Map<Integer, Set<Integer>> samplesPerCandidate;
+    private volatile Map<Integer, Set<Integer>> candidatesPerSample;
+
+    private IncidenceMatrix(int numberOfCandidates, int numberOfSamples, int[] sampleOffsets,
+                            int[] samplesByCandidate, int[] candidateOffsets, int[] candidatesBySample) {
+        this.numberOfCandidates = numberOfCandidates;
+        this.numberOfSamples = numberOfSamples;
+        this.sampleOffsets = sampleOffsets;
+        this.samplesByCandidate = samplesByCandidate;
+        this.candidateOffsets = candidateOffsets;
+        this.candidatesBySample = candidatesBySample;
+    }
+
+    /**
+     * Builds the matrix from the candidates covering each sample. Rows can be unsorted and contain duplicates, and a
+     * null row stands for a sample no candidate covers.
+     */
+    public static IncidenceMatrix fromCandidatesPerSample(int numberOfCandidates, int[][] candidatesPerSample) {
+        int numberOfSamples = candidatesPerSample.length;
+
+        int[] candidateOffsets = new int[numberOfSamples + 1];
+        int[][] sortedRows = new int[numberOfSamples][];
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            int[] row = candidatesPerSample[sampleIndex];
+            sortedRows[sampleIndex] = row == null ? new int[0] : Arrays.stream(row).sorted().distinct().toArray();
+            candidateOffsets[sampleIndex + 1] = candidateOffsets[sampleIndex] + sortedRows[sampleIndex].length;
+        }
+
+        int[] candidatesBySample = new int[candidateOffsets[numberOfSamples]];
+        int[] sampleOffsets = new int[numberOfCandidates + 1];
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            int[] row = sortedRows[sampleIndex];
+            System.arraycopy(row, 0, candidatesBySample, candidateOffsets[sampleIndex], row.length);
+            for (int candidateIndex : row) {
+                sampleOffsets[candidateIndex + 1] += 1;
+            }
+        }
+
+        for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex += 1) {
+            sampleOffsets[candidateIndex + 1] += sampleOffsets[candidateIndex];
+        }
+
+        int[] samplesByCandidate = new int[sampleOffsets[numberOfCandidates]];
+        int[] nextPosition = Arrays.copyOf(sampleOffsets, numberOfCandidates);
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            for (int candidateIndex : sortedRows[sampleIndex]) {
+                samplesByCandidate[nextPosition[candidateIndex]] = sampleIndex;
+                nextPosition[candidateIndex] += 1;
+            }
+        }
+
+        return new IncidenceMatrix(numberOfCandidates, numberOfSamples, sampleOffsets, samplesByCandidate,
+                candidateOffsets, candidatesBySample);
+    }
+
+    /**
+     * Writes the matrix in the layout read by readFrom.
+     */
+    void writeTo(DataOutput output) throws IOException {
+        output.writeInt(this.numberOfCandidates);
+        output.writeInt(this.numberOfSamples);
+        writeArray(output, this.sampleOffsets);
+        writeArray(output, this.samplesByCandidate);
+        writeArray(output, this.candidateOffsets);
+        writeArray(output, this.candidatesBySample);
+    }
+
+    static void writeArray(DataOutput output, int[] values) throws IOException {
+        output.writeInt(values.length);
+        for (int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads a matrix written by writeTo, advancing the buffer past it. Arrays are bulk-copied from the buffer, which is
+     * usually memory-mapped.
+     */
+    static IncidenceMatrix readFrom(ByteBuffer buffer) {
+        int numberOfCandidates = buffer.getInt();
+        int numberOfSamples = buffer.getInt();
+        int[] sampleOffsets = readArray(buffer);
+        int[] samplesByCandidate = readArray(buffer);
+        int[] candidateOffsets = readArray(buffer);
+        int[] candidatesBySample = readArray(buffer);
+
+        return new IncidenceMatrix(numberOfCandidates, numberOfSamples, sampleOffsets, samplesByCandidate,
+                candidateOffsets, candidatesBySample);
+    }
+
+    static int[] readArray(ByteBuffer buffer) {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * The same incidence with the roles of candidates and samples swapped. Arrays are shared, not copied.
+     */
+    public IncidenceMatrix transpose() {
+        return new IncidenceMatrix(this.numberOfSamples, this.numberOfCandidates, this.candidateOffsets,
+                this.candidatesBySample, this.sampleOffsets, this.samplesByCandidate);
+    }
+
+    public int getNumberOfCandidates() {
+        return this.numberOfCandidates;
+    }
+
+    public int getNumberOfSamples() {
+        return this.numberOfSamples;
+    }
+
+    public int getNumberOfIncidences() {
+        return this.samplesByCandidate.length;
+    }
+
+    public int getSamplesStart(int candidateIndex) {
+        return this.sampleOffsets[candidateIndex];
+    }
+
+    public int getSamplesEnd(int candidateIndex) {
+        return this.sampleOffsets[candidateIndex + 1];
+    }
+
+    /**
+     * Sample at a position between getSamplesStart and getSamplesEnd of a candidate.
+     */
+    public int getSample(int position) {
+        return this.samplesByCandidate[position];
+    }
+
+    public int getCoverageSize(int candidateIndex) {
+        return this.sampleOffsets[candidateIndex + 1] - this.sampleOffsets[candidateIndex];
+    }
+
+    public int[] getSamples(int candidateIndex) {
+        return Arrays.copyOfRange(this.samplesByCandidate, this.getSamplesStart(candidateIndex),
+                this.getSamplesEnd(candidateIndex));
+    }
+
+    public int getCandidatesStart(int sampleIndex) {
+        return this.candidateOffsets[sampleIndex];
+    }
+
+    public int getCandidatesEnd(int sampleIndex) {
+        return this.candidateOffsets[sampleIndex + 1];
+    }
+
+    /**
+     * Candidate at a position between getCandidatesStart and getCandidatesEnd of a sample.
+     */
+    public int getCandidate(int position) {
+        return this.candidatesBySample[position];
+    }
+
+    public int getNumberOfCoveringCandidates(int sampleIndex) {
+        return this.candidateOffsets[sampleIndex + 1] - this.candidateOffsets[sampleIndex];
+    }
+
+    public int[] getCandidates(int sampleIndex) {
+        return Arrays.copyOfRange(this.candidatesBySample, this.getCandidatesStart(sampleIndex),
+                this.getCandidatesEnd(sampleIndex));
+    }
+
+    public Set<Integer> getSampleSet(int candidateIndex) {
+        return new IntSliceSet(this.samplesByCandidate, this.getSamplesStart(candidateIndex),
+                this.getSamplesEnd(candidateIndex));
+    }
+
+    public Set<Integer> getCandidateSet(int sampleIndex) {
+        return new IntSliceSet(this.candidatesBySample, this.getCandidatesStart(sampleIndex),
+                this.getCandidatesEnd(sampleIndex));
+    }
+
+    /**
+     * Boxed view of the whole matrix, built on first use and cached. Hot paths should use the primitive ranges instead.
+     */
+    public Map<Integer, Set<Integer>> getSamplesPerCandidate() {
+        Map<Integer, Set<Integer>> samplesPerCandidate = this.samplesPerCandidate;
+        if (samplesPerCandidate == null) {
+            samplesPerCandidate = IntStream.range(0, this.numberOfCandidates)
+                    .boxed()
+                    .collect(Collectors.toUnmodifiableMap(candidateIndex -> candidateIndex, this::getSampleSet));
+            this.samplesPerCandidate = samplesPerCandidate;
+        }
+        return samplesPerCandidate;
+    }
+
+    /**
+     * Boxed view of the whole matrix, built on first use and cached. Hot paths should use the primitive ranges instead.
+     */
+    public Map<Integer, Set<Integer>> getCandidatesPerSample() {
+        Map<Integer, Set<Integer>> candidatesPerSample = this.candidatesPerSample;
+        if (candidatesPerSample == null) {
+            candidatesPerSample = IntStream.range(0, this.numberOfSamples)
+                    .boxed()
+                    .collect(Collectors.toUnmodifiableMap(sampleIndex -> sampleIndex, this::getCandidateSet));
+            this.candidatesPerSample = candidatesPerSample;
+        }
+        return candidatesPerSample;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the instance, to recognise data computed for the same matrix in a previous run.
+     */
+    public long getFingerprint() {
+        long fingerprint = 0xcbf29ce484222325L;
+        fingerprint = mixIntoFingerprint(fingerprint, this.numberOfCandidates);
+        fingerprint = mixIntoFingerprint(fingerprint, this.numberOfSamples);
+        for (int offset : this.sampleOffsets) {
+            fingerprint = mixIntoFingerprint(fingerprint, offset);
+        }
+        for (int sampleIndex : this.samplesByCandidate) {
+            fingerprint = mixIntoFingerprint(fingerprint, sampleIndex);
+        }
+
+        return fingerprint;
+    }
+
+    private static long mixIntoFingerprint(long fingerprint, int value) {
+        return (fingerprint ^ value) * 0x100000001b3L;
+    }
+
+    @Override
+    public String toString() {
+        return "IncidenceMatrix{" +
+                "numberOfCandidates=" + numberOfCandidates +
+                ", numberOfSamples=" + numberOfSamples +
+                ", numberOfIncidences=" + getNumberOfIncidences() +
+                '}';
+    }
+}
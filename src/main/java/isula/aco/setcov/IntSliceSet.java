@@ -0,0 +1,56 @@
+package isula.aco.setcov;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only Set view over a sorted slice of an int array, so the Set based getters can expose CSR data without
+ * copying it.
+ */
+final class IntSliceSet extends AbstractSet<Integer> {
+
+    private final int[] values;
+    private final int start;
+    private final int end;
+
+    IntSliceSet(int[] values, int start, int end) {
+        this.values = values;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer && Arrays.binarySearch(this.values, this.start, this.end, (Integer) value) >= 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int position = start;
+
+            @Override
+            public boolean hasNext() {
+                return position < end;
+            }
+
+            @Override
+            public Integer next() {
+                if (position >= end) {
+                    throw new NoSuchElementException();
+                }
+
+                int value = values[position];
+                position += 1;
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.end - this.start;
+    }
+}
@@ -0,0 +1,103 @@
+package isula.aco.setcov;
+
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.algorithms.antsystem.AntSystemConfigurationProvider;
+
+import java.util.logging.Logger;
+
+/**
+ * Migration step of the island model, one per colony. It keeps the best solution found by its colony, and every
+ * migrationInterval iterations it publishes it to the mailbox and reads the solutions of its source islands. Migrants
+ * at least as good as the island's best reinforce the pheromone trails, like an extra ant, within the environment's
+ * trail limits. A better migrant becomes the island's best, and is handed to the environment for the pheromone update.
+ * An island republishes the same solution while its best does not change, so each island remembers the last migrant it
+ * received from every source and deposits each published solution only once.
+ */
+public class IslandMigration extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    private static final Logger logger = Logger.getLogger(IslandMigration.class.getName());
+
+    private final MigrationMailbox mailbox;
+    private final int islandId;
+    private final int migrationInterval;
+    private final IslandModel.Topology topology;
+
+    private final SetCoveringSolution[] receivedMigrants;
+
+    private SetCoveringSolution islandBestSolution;
+    private int iteration;
+
+    IslandMigration(MigrationMailbox mailbox, int migrationInterval, IslandModel.Topology topology) {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+        this.mailbox = mailbox;
+        this.islandId = mailbox.register();
+        this.migrationInterval = migrationInterval;
+        this.topology = topology;
+        this.receivedMigrants = new SetCoveringSolution[mailbox.getNumberOfIslands()];
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        SetCoveringEnvironment environment = this.getEnvironment();
+        AntForSetCovering bestAnt = (AntForSetCovering) this.getAntColony().getBestPerformingAnt(environment);
+        SetCoveringSolution iterationBestSolution = bestAnt.getSelectedCandidates();
+        if (this.islandBestSolution == null || iterationBestSolution.size() < this.islandBestSolution.size()) {
+            this.islandBestSolution = iterationBestSolution.copy();
+        }
+
+        this.iteration += 1;
+        if (this.iteration % this.migrationInterval != 0) {
+            return;
+        }
+
+        this.mailbox.publish(this.islandId, this.islandBestSolution);
+
+        double depositFactor = ((AntSystemConfigurationProvider) configurationProvider).getPheromoneDepositFactor();
+        int numberOfIslands = this.mailbox.getNumberOfIslands();
+        for (int offset = 1; offset < numberOfIslands; offset += 1) {
+            if (this.topology == IslandModel.Topology.RING && offset > 1) {
+                break;
+            }
+
+            int sourceIslandId = (this.islandId - offset + numberOfIslands) % numberOfIslands;
+            SetCoveringSolution migrant = this.mailbox.getPublishedSolution(sourceIslandId);
+            if (migrant == null || migrant == this.receivedMigrants[sourceIslandId] ||
+                    migrant == this.islandBestSolution) {
+                continue;
+            }
+
+            this.receivedMigrants[sourceIslandId] = migrant;
+            if (migrant.size() <= this.islandBestSolution.size()) {
+                environment.depositPheromone(migrant, depositFactor / migrant.size(), environment.getMaximumTrail());
+                if (migrant.size() < this.islandBestSolution.size()) {
+                    logger.fine("Island " + this.islandId + " received a solution of size " + migrant.size() +
+                            " from island " + sourceIslandId);
+                    this.islandBestSolution = migrant;
+                    environment.receiveSolution(migrant);
+                }
+            }
+        }
+    }
+
+    public int getIslandId() {
+        return this.islandId;
+    }
+
+    /**
+     * Best solution found by the colony or received from other islands. It must not be modified.
+     */
+    public SetCoveringSolution getIslandBestSolution() {
+        return this.islandBestSolution;
+    }
+
+    @Override
+    public String toString() {
+        return "IslandMigration{" +
+                "islandId=" + islandId +
+                ", migrationInterval=" + migrationInterval +
+                ", topology=" + topology +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package isula.aco.setcov;
+
+import isula.aco.DaemonAction;
+import isula.aco.exception.ConfigurationException;
+
+import java.util.function.Supplier;
+
+/**
+ * Configuration of the island model: parallel colonies that, every few iterations, send their best solution to other
+ * colonies and reinforce their own pheromone trails with the solutions they receive.
+ */
+public final class IslandModel {
+
+    public enum Topology {
+        /**
+         * Each island receives the best solution of the previous one.
+         */
+        RING,
+        /**
+         * Each island receives the best solutions of all the others.
+         */
+        ALL_TO_ALL
+    }
+
+    private final int numberOfIslands;
+    private final int migrationInterval;
+    private final Topology topology;
+
+    public IslandModel(int numberOfIslands, int migrationInterval, Topology topology) {
+        if (numberOfIslands < 1 || migrationInterval < 1) {
+            throw new ConfigurationException("The island model needs at least one island and a migration interval " +
+                    "of at least one iteration.");
+        }
+
+        this.numberOfIslands = numberOfIslands;
+        this.migrationInterval = migrationInterval;
+        this.topology = topology;
+    }
+
+    /**
+     * Creates the migration daemon actions for one run, to be added to a ParallelAcoProblemSolver with
+     * numberOfIslands colonies. Each action created by the supplier takes the next island id, and all of them share a
+     * new mailbox.
+     */
+    public Supplier<DaemonAction<Integer, SetCoveringEnvironment>> createMigrationActions() {
+        MigrationMailbox mailbox = new MigrationMailbox(this.numberOfIslands);
+        return () -> new IslandMigration(mailbox, this.migrationInterval, this.topology);
+    }
+
+    public int getNumberOfIslands() {
+        return this.numberOfIslands;
+    }
+
+    public int getMigrationInterval() {
+        return this.migrationInterval;
+    }
+
+    public Topology getTopology() {
+        return this.topology;
+    }
+
+    @Override
+    public String toString() {
+        return "IslandModel{" +
+                "numberOfIslands=" + numberOfIslands +
+                ", migrationInterval=" + migrationInterval +
+                ", topology=" + topology +
+                '}';
+    }
+}
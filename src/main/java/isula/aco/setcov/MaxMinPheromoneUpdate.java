@@ -0,0 +1,125 @@
+package isula.aco.setcov;
+
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.algorithms.antsystem.AntSystemConfigurationProvider;
+
+import java.util.logging.Logger;
+
+/**
+ * Pheromone update of the MAX-MIN Ant System. Only one solution deposits per iteration: the iteration best, or the
+ * colony's best-so-far every bestSoFarInterval iterations. Trails stay within [tauMin, tauMax], where
+ * tauMax = depositFactor / ((1 - evaporationRatio) * bestSoFarCost) and tauMin follows from pBest, the probability of
+ * building the best-so-far solution once trails have converged.
+ * <p>
+ * Evaporation and clamping run as a single loop over the pheromone vector, and the deposit only visits the components
+ * of the depositing solution. On the first iteration, every trail starts at tauMax.
+ * <p>
+ * The limits are also set on the environment, so restarts and migration keep trails within them. Solutions the
+ * environment received from other colonies count towards the best-so-far, as if the colony had built them.
+ */
+public class MaxMinPheromoneUpdate extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    private static final Logger logger = Logger.getLogger(MaxMinPheromoneUpdate.class.getName());
+
+    private static final double DEFAULT_BEST_PROBABILITY = 0.05;
+    private static final int DEFAULT_BEST_SO_FAR_INTERVAL = 5;
+
+    private final double bestProbability;
+    private final int bestSoFarInterval;
+
+    private SetCoveringSolution bestSoFarSolution;
+    private double minimumTrail;
+    private double maximumTrail;
+    private int iteration;
+
+    public MaxMinPheromoneUpdate() {
+        this(DEFAULT_BEST_PROBABILITY, DEFAULT_BEST_SO_FAR_INTERVAL);
+    }
+
+    /**
+     * @param bestProbability   pBest, between 0 and 1. Lower values give a lower tauMin relative to tauMax.
+     * @param bestSoFarInterval Every how many iterations the best-so-far solution deposits instead of the iteration
+     *                          best.
+     */
+    public MaxMinPheromoneUpdate(double bestProbability, int bestSoFarInterval) {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+        this.bestProbability = bestProbability;
+        this.bestSoFarInterval = bestSoFarInterval;
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        SetCoveringEnvironment environment = this.getEnvironment();
+        AntForSetCovering bestAnt = (AntForSetCovering) this.getAntColony().getBestPerformingAnt(environment);
+        SetCoveringSolution iterationBestSolution = bestAnt.getSelectedCandidates();
+
+        SetCoveringSolution candidateSolution = iterationBestSolution;
+        SetCoveringSolution receivedSolution = environment.takeReceivedSolution();
+        if (receivedSolution != null && receivedSolution.size() < candidateSolution.size()) {
+            candidateSolution = receivedSolution;
+        }
+
+        boolean firstIteration = this.bestSoFarSolution == null;
+        if (firstIteration || candidateSolution.size() < this.bestSoFarSolution.size()) {
+            this.bestSoFarSolution = candidateSolution.copy();
+            this.updateTrailLimits(configurationProvider, environment);
+        }
+
+        if (firstIteration) {
+            environment.populatePheromoneMatrix(this.maximumTrail);
+        }
+
+        this.iteration += 1;
+        SetCoveringSolution depositingSolution = this.iteration % this.bestSoFarInterval == 0 ?
+                this.bestSoFarSolution : iterationBestSolution;
+        double depositFactor = ((AntSystemConfigurationProvider) configurationProvider).getPheromoneDepositFactor();
+
+        environment.evaporateAndClampPheromoneTrails(configurationProvider.getEvaporationRatio(), this.minimumTrail,
+                this.maximumTrail);
+        environment.depositPheromone(depositingSolution, depositFactor / depositingSolution.size(),
+                this.maximumTrail);
+    }
+
+    private void updateTrailLimits(ConfigurationProvider configurationProvider, SetCoveringEnvironment environment) {
+        double depositFactor = ((AntSystemConfigurationProvider) configurationProvider).getPheromoneDepositFactor();
+        double evaporationRate = 1.0 - configurationProvider.getEvaporationRatio();
+        int solutionSize = Math.max(this.bestSoFarSolution.size(), 1);
+
+        this.maximumTrail = evaporationRate > 0 ? depositFactor / (evaporationRate * solutionSize) : Double.MAX_VALUE;
+        this.minimumTrail = getMinimumTrail(this.maximumTrail, this.bestProbability, solutionSize,
+                environment.getNumberOfCandidates() / 2.0);
+        environment.setTrailLimits(this.minimumTrail, this.maximumTrail);
+        logger.fine("Trail limits for a solution of size " + solutionSize + ": [" + this.minimumTrail + ", " +
+                this.maximumTrail + "]");
+    }
+
+    /**
+     * tauMin such that, with all trails converged, a solution of solutionSize components is built with probability
+     * bestProbability, when each step chooses among averageChoices candidates.
+     */
+    static double getMinimumTrail(double maximumTrail, double bestProbability, int solutionSize,
+                                  double averageChoices) {
+        double decisionProbability = Math.pow(bestProbability, 1.0 / solutionSize);
+        return maximumTrail * (1 - decisionProbability) / (Math.max(averageChoices - 1, 1) * decisionProbability);
+    }
+
+    public double getMinimumTrail() {
+        return this.minimumTrail;
+    }
+
+    public double getMaximumTrail() {
+        return this.maximumTrail;
+    }
+
+    @Override
+    public String toString() {
+        return "MaxMinPheromoneUpdate{" +
+                "bestProbability=" + bestProbability +
+                ", bestSoFarInterval=" + bestSoFarInterval +
+                ", minimumTrail=" + minimumTrail +
+                ", maximumTrail=" + maximumTrail +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package isula.aco.setcov;
+
+import isula.aco.exception.ConfigurationException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One slot per island holding the last solution it published. Islands write only their own slot and read the others
+ * without locking. Published solutions are never modified afterwards, so readers can use them directly.
+ */
+final class MigrationMailbox {
+
+    private final AtomicReferenceArray<SetCoveringSolution> publishedSolutions;
+    private final AtomicInteger nextIslandId = new AtomicInteger();
+
+    MigrationMailbox(int numberOfIslands) {
+        this.publishedSolutions = new AtomicReferenceArray<>(numberOfIslands);
+    }
+
+    /**
+     * @return The id of a new island, between 0 and numberOfIslands - 1.
+     */
+    int register() {
+        int islandId = this.nextIslandId.getAndIncrement();
+        if (islandId >= this.getNumberOfIslands()) {
+            throw new ConfigurationException("The mailbox only has room for " + this.getNumberOfIslands() +
+                    " islands.");
+        }
+
+        return islandId;
+    }
+
+    void publish(int islandId, SetCoveringSolution solution) {
+        this.publishedSolutions.set(islandId, solution);
+    }
+
+    /**
+     * @return The last solution published by the island, or null if it has not published any.
+     */
+    SetCoveringSolution getPublishedSolution(int islandId) {
+        return this.publishedSolutions.get(islandId);
+    }
+
+    int getNumberOfIslands() {
+        return this.publishedSolutions.length();
+    }
+}
@@ -0,0 +1,131 @@
+package isula.aco.setcov;
+
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.algorithms.antsystem.AntSystemConfigurationProvider;
+
+import java.util.logging.Logger;
+
+/**
+ * Restarts the pheromone trails of a colony that has stagnated: its best solution has not improved for a number of
+ * iterations, and pheromone has concentrated on few candidates. Concentration is measured with the lambda-branching
+ * factor: the number of candidates whose trail is above tauMin + lambda * (tauMax - tauMin), divided by the size of
+ * the colony's best solution. A value close to 1 means ants keep building that same solution; with the default
+ * heuristic importance, stagnated colonies on the AC instances settle at around 4.
+ * <p>
+ * On restart, every trail goes back to the initial pheromone value, or to tauMax when the environment has trail
+ * limits. Optionally, the best solution deposits pheromone on top of it, never above tauMax, so construction starts
+ * biased towards it.
+ */
+public class PheromoneRestart extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    private static final Logger logger = Logger.getLogger(PheromoneRestart.class.getName());
+
+    private static final int DEFAULT_STAGNATION_ITERATIONS = 25;
+    private static final double DEFAULT_BRANCHING_THRESHOLD = 5.0;
+    private static final double LAMBDA = 0.05;
+
+    private final int stagnationIterations;
+    private final double branchingThreshold;
+    private final boolean biasTowardsBest;
+
+    private SetCoveringSolution colonyBestSolution;
+    private int iterationsWithoutImprovement;
+    private int restarts;
+
+    public PheromoneRestart() {
+        this(DEFAULT_STAGNATION_ITERATIONS, DEFAULT_BRANCHING_THRESHOLD, true);
+    }
+
+    /**
+     * @param stagnationIterations Iterations without improving the colony's best solution before a restart.
+     * @param branchingThreshold   Restarts only happen when the branching factor is at or below this value.
+     * @param biasTowardsBest      If true, the best solution deposits pheromone after the restart.
+     */
+    public PheromoneRestart(int stagnationIterations, double branchingThreshold, boolean biasTowardsBest) {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+        this.stagnationIterations = stagnationIterations;
+        this.branchingThreshold = branchingThreshold;
+        this.biasTowardsBest = biasTowardsBest;
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        SetCoveringEnvironment environment = this.getEnvironment();
+        AntForSetCovering bestAnt = (AntForSetCovering) this.getAntColony().getBestPerformingAnt(environment);
+        SetCoveringSolution iterationBestSolution = bestAnt.getSelectedCandidates();
+
+        if (this.colonyBestSolution == null || iterationBestSolution.size() < this.colonyBestSolution.size()) {
+            this.colonyBestSolution = iterationBestSolution.copy();
+            this.iterationsWithoutImprovement = 0;
+            return;
+        }
+
+        this.iterationsWithoutImprovement += 1;
+        if (this.iterationsWithoutImprovement < this.stagnationIterations) {
+            return;
+        }
+
+        double branchingFactor = getBranchingFactor(environment.getPheromoneTrails(), this.colonyBestSolution.size());
+        if (branchingFactor > this.branchingThreshold) {
+            return;
+        }
+
+        logger.info("Restarting pheromone trails after " + this.iterationsWithoutImprovement +
+                " iterations without improvement. Branching factor: " + branchingFactor + ", best solution size: " +
+                this.colonyBestSolution.size());
+
+        environment.populatePheromoneMatrix(environment.hasTrailLimits() ? environment.getMaximumTrail() :
+                configurationProvider.getInitialPheromoneValue());
+        if (this.biasTowardsBest) {
+            double depositFactor = ((AntSystemConfigurationProvider) configurationProvider).getPheromoneDepositFactor();
+            environment.depositPheromone(this.colonyBestSolution, depositFactor / this.colonyBestSolution.size(),
+                    environment.getMaximumTrail());
+        }
+
+        this.iterationsWithoutImprovement = 0;
+        this.restarts += 1;
+    }
+
+    /**
+     * Candidates with a trail above the lambda threshold, divided by the reference solution size. When all trails are
+     * equal, every candidate counts.
+     */
+    static double getBranchingFactor(double[] pheromoneTrails, int solutionSize) {
+        double minimumTrail = Double.MAX_VALUE;
+        double maximumTrail = -Double.MAX_VALUE;
+        for (double pheromoneTrail : pheromoneTrails) {
+            minimumTrail = Math.min(minimumTrail, pheromoneTrail);
+            maximumTrail = Math.max(maximumTrail, pheromoneTrail);
+        }
+
+        int branches = 0;
+        if (maximumTrail > minimumTrail) {
+            double threshold = minimumTrail + LAMBDA * (maximumTrail - minimumTrail);
+            for (double pheromoneTrail : pheromoneTrails) {
+                if (pheromoneTrail > threshold) {
+                    branches += 1;
+                }
+            }
+        } else {
+            branches = pheromoneTrails.length;
+        }
+
+        return branches / (double) Math.max(solutionSize, 1);
+    }
+
+    public int getRestarts() {
+        return this.restarts;
+    }
+
+    @Override
+    public String toString() {
+        return "PheromoneRestart{" +
+                "stagnationIterations=" + stagnationIterations +
+                ", branchingThreshold=" + branchingThreshold +
+                ", biasTowardsBest=" + biasTowardsBest +
+                ", restarts=" + restarts +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package isula.aco.setcov;
+
+/**
+ * Values raised to a fixed exponent, computed once so construction steps read them instead of calling Math.pow. The
+ * table is never modified after construction.
+ */
+final class PowerTable {
+
+    private final double exponent;
+    private final double[] powers;
+
+    PowerTable(double[] bases, double exponent) {
+        this.exponent = exponent;
+        this.powers = new double[bases.length];
+        for (int index = 0; index < bases.length; index += 1) {
+            this.powers[index] = Math.pow(bases[index], exponent);
+        }
+    }
+
+    boolean hasExponent(double exponent) {
+        return Double.compare(this.exponent, exponent) == 0;
+    }
+
+    double[] getPowers() {
+        return this.powers;
+    }
+}
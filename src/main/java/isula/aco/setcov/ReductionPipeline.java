@@ -0,0 +1,103 @@
+package isula.aco.setcov;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.logging.Logger;
+
+/**
+ * Reduces a problem instance until no reduction applies. Every round:
+ * <ol>
+ * <li>Removes dominated candidates from the samples they cover.</li>
+ * <li>Fixes mandatory candidates, the only ones left covering a sample, and removes the samples they cover.</li>
+ * <li>Removes dominated samples.</li>
+ * </ol>
+ * One reduction often enables another, so rounds continue while any of them changes the instance. The pre-processor
+ * is left holding the reduced kernel, with the fixed candidates available through getFixedCandidates.
+ */
+public class ReductionPipeline {
+
+    private static final Logger logger = Logger.getLogger(ReductionPipeline.class.getName());
+
+    private final SetCoveringPreProcessor preProcessor;
+
+    public ReductionPipeline(SetCoveringPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    /**
+     * Candidate dominance analyses of all rounds share one deadline: the pre-processor's, or preprocessingTimeLimit
+     * from now if it has none.
+     *
+     * @return Number of rounds performed.
+     */
+    public int reduce() {
+        Instant reductionStart = Instant.now();
+        if (preProcessor.getDominanceDeadline() == null) {
+            preProcessor.setDominanceDeadline(reductionStart.plus(preProcessor.preprocessingTimeLimit));
+        }
+        logger.info("Starting instance reduction. Samples: " + preProcessor.getNumberOfSamples() +
+                ", candidates: " + preProcessor.getNumberOfCandidates());
+
+        BitSet removedCandidates = new BitSet();
+        int round = 0;
+        boolean instanceChanged = true;
+
+        while (instanceChanged && preProcessor.getNumberOfSamples() > 0) {
+            round += 1;
+
+            BitSet dominatedCandidates = preProcessor.analyseCandidateDominance();
+            dominatedCandidates.andNot(removedCandidates);
+            preProcessor.removeCandidates(dominatedCandidates);
+            removedCandidates.or(dominatedCandidates);
+
+            BitSet mandatoryCandidates = this.findMandatoryCandidates();
+            preProcessor.addFixedCandidates(mandatoryCandidates);
+            int coveredSamples = this.removeCoveredSamples(mandatoryCandidates);
+            preProcessor.removeCandidates(mandatoryCandidates);
+            removedCandidates.or(mandatoryCandidates);
+
+            int dominatedSamples = preProcessor.getNumberOfSamples() > 0 ? preProcessor.removeDominatedSamples() : 0;
+
+            logger.info("Reduction round " + round + ": " + dominatedCandidates.cardinality() +
+                    " dominated candidates, " + mandatoryCandidates.cardinality() + " mandatory candidates covering " +
+                    coveredSamples + " samples, " + dominatedSamples + " dominated samples. Remaining samples: " +
+                    preProcessor.getNumberOfSamples() + ", remaining candidates: " +
+                    (preProcessor.getNumberOfCandidates() - removedCandidates.cardinality()));
+
+            instanceChanged = !dominatedCandidates.isEmpty() || !mandatoryCandidates.isEmpty() || dominatedSamples > 0;
+        }
+
+        logger.info("Instance reduction finished in " + Duration.between(reductionStart, Instant.now()).toMillis() +
+                " ms after " + round + " rounds. Fixed candidates: " + preProcessor.getFixedCandidates().size());
+        return round;
+    }
+
+    private BitSet findMandatoryCandidates() {
+        IncidenceMatrix incidenceMatrix = preProcessor.getIncidenceMatrix();
+        BitSet mandatoryCandidates = new BitSet();
+
+        for (int sampleIndex = 0; sampleIndex < incidenceMatrix.getNumberOfSamples(); sampleIndex += 1) {
+            if (incidenceMatrix.getNumberOfCoveringCandidates(sampleIndex) == 1) {
+                mandatoryCandidates.set(incidenceMatrix.getCandidate(incidenceMatrix.getCandidatesStart(sampleIndex)));
+            }
+        }
+
+        return mandatoryCandidates;
+    }
+
+    private int removeCoveredSamples(BitSet candidates) {
+        IncidenceMatrix incidenceMatrix = preProcessor.getIncidenceMatrix();
+        BitSet coveredSamples = new BitSet();
+
+        candidates.stream().forEach(candidateIndex -> {
+            for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+                 position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+                coveredSamples.set(incidenceMatrix.getSample(position));
+            }
+        });
+
+        preProcessor.removeSamples(coveredSamples);
+        return coveredSamples.cardinality();
+    }
+}
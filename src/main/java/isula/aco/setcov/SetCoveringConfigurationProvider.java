@@ -0,0 +1,25 @@
+package isula.aco.setcov;
+
+import java.time.Duration;
+
+/**
+ * Parameters of the set covering policies that Isula's configuration providers do not have.
+ */
+public interface SetCoveringConfigurationProvider {
+
+    /**
+     * q0 of the pseudo-random-proportional rule: the probability of taking the candidate with the largest selection
+     * weight instead of a random proportional choice. 0 keeps the Ant System rule.
+     */
+    double getBestChoiceProbability();
+
+    /**
+     * Maximum number of replacement candidates ApplyExchangeSearch evaluates per solution.
+     */
+    int getExchangeMoveBudget();
+
+    /**
+     * Maximum time ApplyExchangeSearch spends per solution.
+     */
+    Duration getExchangeTimeBudget();
+}
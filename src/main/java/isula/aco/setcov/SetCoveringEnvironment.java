@@ -2,40 +2,30 @@ package isula.aco.setcov;
 
 import isula.aco.Environment;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
-import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
+/**
+ * The environment of a single colony. The instance data lives in a SetCoveringInstance shared by all colonies, so only
+ * the pheromone matrix is allocated per environment.
+ */
 public class SetCoveringEnvironment extends Environment {
 
-    private static final Logger logger = Logger.getLogger(SetCoveringEnvironment.class.getName());
-
-    private long preprocessTimeInSeconds;
-
     public final Set<Integer> dominatedCandidates;
     public final Set<Integer> mandatoryCandidates;
-    private final Map<Integer, Set<Integer>> samplesPerCandidate;
-    private final Map<Integer, Set<Integer>> candidatesPerSample;
-
-    private int numberOfCandidates;
-    private int numberOfSamples;
+    private SetCoveringInstance instance;
+    private volatile PowerTable heuristicPowers;
+    private volatile PowerTable pheromonePowers;
+    private double minimumTrail;
+    private double maximumTrail = Double.POSITIVE_INFINITY;
+    private SetCoveringSolution receivedSolution;
 
+    /**
+     * Shares the instance of another environment, with a pheromone matrix of its own.
+     */
     public SetCoveringEnvironment(SetCoveringEnvironment environmentToClone) {
-        this.preprocessTimeInSeconds = environmentToClone.getPreprocessTimeInSeconds();
-        this.dominatedCandidates = environmentToClone.getDominatedCandidates();
-        this.mandatoryCandidates = environmentToClone.getMandatoryCandidates();
-        this.samplesPerCandidate = environmentToClone.getSamplesPerCandidate();
-        this.candidatesPerSample = environmentToClone.getCandidatesPerSample();
-        this.numberOfCandidates = environmentToClone.getNumberOfCandidates();
-        this.numberOfSamples = environmentToClone.getNumberOfSamples();
-        this.preprocessTimeInSeconds = environmentToClone.preprocessTimeInSeconds;
-
-        this.setPheromoneMatrix(this.createPheromoneMatrix());
+        this(environmentToClone.getInstance());
     }
 
     public SetCoveringEnvironment(SetCoveringPreProcessor preProcessor) {
@@ -47,110 +37,260 @@ public class SetCoveringEnvironment extends Environment {
      * Creates an Environment for the Ants to traverse.
      */
     public SetCoveringEnvironment(SetCoveringPreProcessor preProcessor, boolean performDominanceAnalysis) {
+        this(new SetCoveringInstance(preProcessor, performDominanceAnalysis));
+    }
+
+    public SetCoveringEnvironment(SetCoveringInstance instance) {
         super();
 
-        Instant preprocessStart = Instant.now();
+        this.instance = instance;
+        this.dominatedCandidates = instance.getDominatedCandidates();
+        this.mandatoryCandidates = instance.getMandatoryCandidates();
+
+        this.setPheromoneMatrix(this.createPheromoneMatrix());
+    }
+
+    public SetCoveringInstance getInstance() {
+        return this.instance;
+    }
 
-        this.numberOfCandidates = preProcessor.getNumberOfCandidates();
-        this.numberOfSamples = preProcessor.getNumberOfSamples();
+    public Set<Integer> getMandatoryCandidates() {
+        return this.mandatoryCandidates;
+    }
 
-        this.candidatesPerSample = preProcessor.getCandidatesPerSample();
+    public Set<Integer> getDominatedCandidates() {
+        return this.dominatedCandidates;
+    }
 
-        if (performDominanceAnalysis) {
-            this.dominatedCandidates = preProcessor.findDominatedCandidates();
+    /**
+     * Pheromone only depends on the candidate, so the matrix has a single row with one entry per candidate: the trails
+     * are a contiguous double[], and Isula's daemon actions still work on it as a matrix.
+     */
+    protected double[][] createPheromoneMatrix() {
 
-        } else {
-            logger.warning("Skipping dominance analysis");
-            this.dominatedCandidates = Collections.emptySet();
+        if (this.instance != null && this.getNumberOfCandidates() != 0) {
+            return new double[1][this.getNumberOfCandidates()];
         }
 
-        this.samplesPerCandidate = Collections.unmodifiableMap(preProcessor.getSamplesPerCandidate());
+        return null;
+    }
 
-        logger.info(dominatedCandidates.size() + " dominated candidates from " + this.getNumberOfCandidates());
-        this.mandatoryCandidates = this.findMandatoryCandidates();
+    /**
+     * Pheromone trails indexed by candidate. This is the only row of the pheromone matrix, not a copy. Writes should go
+     * through the methods below, so getPheromonePowers sees them.
+     */
+    public double[] getPheromoneTrails() {
+        return this.getPheromoneMatrix()[0];
+    }
 
-        Instant preprocessEnd = Instant.now();
-        this.preprocessTimeInSeconds = Duration.between(preprocessStart, preprocessEnd).getSeconds();
-        logger.info("Pre-process finished in " + preprocessTimeInSeconds + " seconds.");
+    public double getPheromoneTrailValue(int candidateIndex) {
+        return this.getPheromoneTrails()[candidateIndex];
+    }
 
-        this.setPheromoneMatrix(this.createPheromoneMatrix());
+    public void setPheromoneTrailValue(int candidateIndex, double value) {
+        this.getPheromoneTrails()[candidateIndex] = value;
+        this.pheromonePowers = null;
     }
 
-    public Set<Integer> getMandatoryCandidates() {
-        return this.mandatoryCandidates;
+    @Override
+    public void populatePheromoneMatrix(double pheromoneValue) {
+        Arrays.fill(this.getPheromoneTrails(), pheromoneValue);
+        this.pheromonePowers = null;
     }
 
-    private Set<Integer> findMandatoryCandidates() {
+    /**
+     * Every trail raised to pheromoneImportance, indexed by candidate. It is computed on first use after the trails
+     * change, so once per iteration. Trails only change between construction phases; ants building concurrently may
+     * compute the same table twice, but never see a stale one.
+     */
+    double[] getPheromonePowers(double pheromoneImportance) {
+        PowerTable powerTable = this.pheromonePowers;
+        if (powerTable == null || !powerTable.hasExponent(pheromoneImportance)) {
+            powerTable = new PowerTable(this.getPheromoneTrails(), pheromoneImportance);
+            this.pheromonePowers = powerTable;
+        }
+        return powerTable.getPowers();
+    }
 
+    /**
+     * The heuristic of a candidate, coverageGain / numberOfSamples, raised to heuristicImportance. The table is
+     * indexed by coverage gain, from 0 to the number of samples.
+     */
+    double[] getHeuristicPowers(double heuristicImportance) {
+        PowerTable powerTable = this.heuristicPowers;
+        if (powerTable == null || !powerTable.hasExponent(heuristicImportance)) {
+            double[] heuristicValues = new double[this.getNumberOfSamples() + 1];
+            for (int coverageGain = 0; coverageGain < heuristicValues.length; coverageGain += 1) {
+                heuristicValues[coverageGain] = coverageGain / (double) this.getNumberOfSamples();
+            }
+            powerTable = new PowerTable(heuristicValues, heuristicImportance);
+            this.heuristicPowers = powerTable;
+        }
+        return powerTable.getPowers();
+    }
 
-        Set<Integer> mandatoryCandidates = new HashSet<>();
+    /**
+     * Multiplies every trail by the evaporation ratio, as PerformEvaporation does.
+     */
+    public void evaporatePheromoneTrails(double evaporationRatio) {
+        double[] pheromoneTrails = this.getPheromoneTrails();
+        for (int candidateIndex = 0; candidateIndex < pheromoneTrails.length; candidateIndex += 1) {
+            pheromoneTrails[candidateIndex] *= evaporationRatio;
+        }
+        this.pheromonePowers = null;
+    }
 
-        for (int sampleIndex = 0; sampleIndex < this.getNumberOfSamples(); sampleIndex += 1) {
-            Set<Integer> coveringCandidates = this.getCoveringCandidates(sampleIndex).stream()
-                    .filter((candidateIndex) -> !this.dominatedCandidates.contains(candidateIndex))
-                    .collect(Collectors.toUnmodifiableSet());
+    /**
+     * Evaporates every trail and keeps it within [minimumTrail, maximumTrail], in a single loop.
+     */
+    public void evaporateAndClampPheromoneTrails(double evaporationRatio, double minimumTrail, double maximumTrail) {
+        double[] pheromoneTrails = this.getPheromoneTrails();
+        for (int candidateIndex = 0; candidateIndex < pheromoneTrails.length; candidateIndex += 1) {
+            pheromoneTrails[candidateIndex] = Math.max(minimumTrail,
+                    Math.min(maximumTrail, pheromoneTrails[candidateIndex] * evaporationRatio));
+        }
+        this.pheromonePowers = null;
+    }
 
-            if (coveringCandidates.size() == 1) {
-                mandatoryCandidates.add(coveringCandidates.iterator().next());
-            }
+    /**
+     * Adds the amount to the trail of every component of the solution, without going over maximumTrail.
+     */
+    public void depositPheromone(SetCoveringSolution solution, double amount, double maximumTrail) {
+        double[] pheromoneTrails = this.getPheromoneTrails();
+        for (int position = 0; position < solution.size(); position += 1) {
+            int candidateIndex = solution.get(position);
+            pheromoneTrails[candidateIndex] = Math.min(maximumTrail, pheromoneTrails[candidateIndex] + amount);
         }
+        this.pheromonePowers = null;
+    }
 
-        logger.info("Mandatory candidates found: " + mandatoryCandidates.size());
-        return mandatoryCandidates;
+    /**
+     * Adds the amount to the trail of every component of the solution.
+     */
+    public void depositPheromone(SetCoveringSolution solution, double amount) {
+        double[] pheromoneTrails = this.getPheromoneTrails();
+        for (int position = 0; position < solution.size(); position += 1) {
+            pheromoneTrails[solution.get(position)] += amount;
+        }
+        this.pheromonePowers = null;
     }
 
-    public Set<Integer> getDominatedCandidates() {
-        return this.dominatedCandidates;
+    /**
+     * Bounds set by a pheromone update that keeps trails limited, like the MAX-MIN Ant System, so other daemon actions
+     * writing trails respect them. Without limits, trails are unbounded.
+     */
+    public void setTrailLimits(double minimumTrail, double maximumTrail) {
+        this.minimumTrail = minimumTrail;
+        this.maximumTrail = maximumTrail;
     }
 
-    protected double[][] createPheromoneMatrix() {
+    public boolean hasTrailLimits() {
+        return this.maximumTrail != Double.POSITIVE_INFINITY;
+    }
+
+    public double getMinimumTrail() {
+        return this.minimumTrail;
+    }
 
-        if (this.numberOfCandidates != 0) {
-            return new double[this.numberOfCandidates][1];
+    public double getMaximumTrail() {
+        return this.maximumTrail;
+    }
+
+    /**
+     * Hands a solution found outside the colony, like a migrant, to the pheromone update, which may keep it as its
+     * best-so-far. Only the smallest solution received since the last take is kept. It must not be modified.
+     */
+    public void receiveSolution(SetCoveringSolution solution) {
+        if (this.receivedSolution == null || solution.size() < this.receivedSolution.size()) {
+            this.receivedSolution = solution;
         }
+    }
 
-        return null;
+    /**
+     * @return The solution received since the last call, or null if there is none.
+     */
+    public SetCoveringSolution takeReceivedSolution() {
+        SetCoveringSolution solution = this.receivedSolution;
+        this.receivedSolution = null;
+        return solution;
     }
 
     public int getNumberOfCandidates() {
-        return numberOfCandidates;
+        return this.instance.getNumberOfCandidates();
     }
 
     public int getNumberOfSamples() {
-        return this.numberOfSamples;
+        return this.instance.getNumberOfSamples();
     }
 
     public Set<Integer> getCoveringCandidates(int sampleIndex) {
-        return this.candidatesPerSample.get(sampleIndex);
+        return this.getIncidenceMatrix().getCandidateSet(sampleIndex);
     }
 
     public Set<Integer> getSamplesForNonDominatedCandidate(int candidateIndex) {
-        return this.samplesPerCandidate.get(candidateIndex);
+        return this.getIncidenceMatrix().getSampleSet(candidateIndex);
+    }
+
+    /**
+     * Limits the candidates ants consider for a sample to the listSize non-dominated ones with the largest coverage.
+     * Environments copied afterwards share the new lists.
+     */
+    public void setCandidateListSize(int listSize) {
+        this.instance = this.instance.withCandidateListSize(listSize);
     }
 
+    public int getCandidateListSize() {
+        return this.instance.getCandidateLists().getListSize();
+    }
 
-    private Map<Integer, Set<Integer>> getCandidatesPerSample() {
-        return this.candidatesPerSample;
+    CandidateLists getCandidateLists() {
+        return this.instance.getCandidateLists();
     }
 
-    public boolean isDominatedCandidate(int candidateIndex) {
-        return this.dominatedCandidates.contains(candidateIndex);
+    public IncidenceMatrix getIncidenceMatrix() {
+        return this.instance.getIncidenceMatrix();
     }
 
+    /**
+     * The instance as loaded, including samples removed by sample dominance. Solutions should be validated against it.
+     */
+    public IncidenceMatrix getOriginalIncidenceMatrix() {
+        return this.instance.getOriginalIncidenceMatrix();
+    }
+
+    public int getOriginalSampleIndex(int sampleIndex) {
+        return this.instance.getOriginalSampleIndex(sampleIndex);
+    }
+
+    int[] getOriginalSampleIndexes() {
+        return this.instance.getOriginalSampleIndexes();
+    }
+
+    /**
+     * Number of samples covered by each candidate, indexed by candidate. Ants use it as the starting point of their
+     * coverage gain counters, so it must not be modified.
+     */
+    int[] getCoverageSizes() {
+        return this.instance.getCoverageSizes();
+    }
+
+    public boolean isDominatedCandidate(int candidateIndex) {
+        return this.instance.isDominatedCandidate(candidateIndex);
+    }
 
-    private long getPreprocessTimeInSeconds() {
-        return this.preprocessTimeInSeconds;
+    public boolean isMandatoryCandidate(int candidateIndex) {
+        return this.instance.isMandatoryCandidate(candidateIndex);
     }
 
     public Map<Integer, Set<Integer>> getSamplesPerCandidate() {
-        return samplesPerCandidate;
+        return this.getIncidenceMatrix().getSamplesPerCandidate();
     }
 
 
     @Override
     public String toString() {
         return "SetCoveringEnvironment{" +
-                "preprocessTimeInSeconds=" + preprocessTimeInSeconds +
+                "preprocessTimeInSeconds=" + instance.getPreprocessTimeInSeconds() +
                 ", dominatedCandidates.size()=" + dominatedCandidates.size() +
                 ", mandatoryCandidates.size()=" + mandatoryCandidates.size() +
                 "} " + super.toString();
@@ -0,0 +1,25 @@
+package isula.aco.setcov;
+
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+
+/**
+ * Evaporation over the environment's pheromone vector, in a single loop. Equivalent to PerformEvaporation.
+ */
+public class SetCoveringEvaporation extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    public SetCoveringEvaporation() {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        this.getEnvironment().evaporatePheromoneTrails(configurationProvider.getEvaporationRatio());
+    }
+
+    @Override
+    public String toString() {
+        return "SetCoveringEvaporation{}";
+    }
+}
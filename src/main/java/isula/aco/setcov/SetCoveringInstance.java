@@ -0,0 +1,218 @@
+package isula.aco.setcov;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * The pre-processed problem: incidence data, dominated and mandatory candidates, and candidate lists. It is built once
+ * and never modified afterwards, so every colony and ant can share it across threads. Arrays are only exposed
+ * package-private, and callers must not write to them.
+ */
+public final class SetCoveringInstance {
+
+    private static final Logger logger = Logger.getLogger(SetCoveringInstance.class.getName());
+
+    private final IncidenceMatrix incidenceMatrix;
+    private final IncidenceMatrix originalIncidenceMatrix;
+    private final int[] originalSampleIndexes;
+    private final Set<Integer> dominatedCandidates;
+    private final BitSet dominatedFlags;
+    private final Set<Integer> mandatoryCandidates;
+    private final BitSet mandatoryFlags;
+    private final int[] coverageSizes;
+    private final CandidateLists candidateLists;
+    private final long preprocessTimeInSeconds;
+    private final boolean dominanceComplete;
+
+    /**
+     * Pre-processes the instance held by the pre-processor.
+     */
+    public SetCoveringInstance(SetCoveringPreProcessor preProcessor, boolean performDominanceAnalysis) {
+        Instant preprocessStart = Instant.now();
+
+        this.incidenceMatrix = preProcessor.getIncidenceMatrix();
+        this.originalIncidenceMatrix = preProcessor.getOriginalIncidenceMatrix();
+        this.originalSampleIndexes = preProcessor.getOriginalSampleIndexes();
+
+        if (performDominanceAnalysis) {
+            this.dominatedCandidates = Set.copyOf(preProcessor.findDominatedCandidates());
+        } else {
+            logger.warning("Skipping dominance analysis");
+            this.dominatedCandidates = Collections.emptySet();
+        }
+        this.dominatedFlags = toBitSet(this.dominatedCandidates);
+        logger.info(dominatedCandidates.size() + " dominated candidates from " + this.getNumberOfCandidates());
+
+        this.coverageSizes = calculateCoverageSizes(this.incidenceMatrix);
+        this.mandatoryCandidates = this.findMandatoryCandidates(preProcessor.getFixedCandidates());
+        this.mandatoryFlags = toBitSet(this.mandatoryCandidates);
+        this.candidateLists = new CandidateLists(this.incidenceMatrix, this.dominatedCandidates,
+                CandidateLists.DEFAULT_LIST_SIZE);
+
+        this.dominanceComplete = !performDominanceAnalysis || preProcessor.isDominanceComplete();
+        this.preprocessTimeInSeconds = Duration.between(preprocessStart, Instant.now()).getSeconds();
+        logger.info("Pre-process finished in " + preprocessTimeInSeconds + " seconds.");
+    }
+
+    /**
+     * Restores a pre-processed instance, as stored by SetCoveringSnapshot. Only instances with complete dominance
+     * analysis are stored.
+     */
+    SetCoveringInstance(IncidenceMatrix incidenceMatrix, IncidenceMatrix originalIncidenceMatrix,
+                        int[] originalSampleIndexes, Set<Integer> dominatedCandidates,
+                        Set<Integer> mandatoryCandidates) {
+        this(incidenceMatrix, originalIncidenceMatrix, originalSampleIndexes, Set.copyOf(dominatedCandidates),
+                Set.copyOf(mandatoryCandidates), calculateCoverageSizes(incidenceMatrix),
+                new CandidateLists(incidenceMatrix, dominatedCandidates, CandidateLists.DEFAULT_LIST_SIZE), 0, true);
+    }
+
+    private SetCoveringInstance(IncidenceMatrix incidenceMatrix, IncidenceMatrix originalIncidenceMatrix,
+                                int[] originalSampleIndexes, Set<Integer> dominatedCandidates,
+                                Set<Integer> mandatoryCandidates, int[] coverageSizes, CandidateLists candidateLists,
+                                long preprocessTimeInSeconds, boolean dominanceComplete) {
+        this.incidenceMatrix = incidenceMatrix;
+        this.originalIncidenceMatrix = originalIncidenceMatrix;
+        this.originalSampleIndexes = originalSampleIndexes;
+        this.dominatedCandidates = dominatedCandidates;
+        this.dominatedFlags = toBitSet(dominatedCandidates);
+        this.mandatoryCandidates = mandatoryCandidates;
+        this.mandatoryFlags = toBitSet(mandatoryCandidates);
+        this.coverageSizes = coverageSizes;
+        this.candidateLists = candidateLists;
+        this.preprocessTimeInSeconds = preprocessTimeInSeconds;
+        this.dominanceComplete = dominanceComplete;
+    }
+
+    /**
+     * The same instance with candidate lists of another size. Everything else is shared.
+     */
+    public SetCoveringInstance withCandidateListSize(int listSize) {
+        return new SetCoveringInstance(this.incidenceMatrix, this.originalIncidenceMatrix, this.originalSampleIndexes,
+                this.dominatedCandidates, this.mandatoryCandidates, this.coverageSizes,
+                new CandidateLists(this.incidenceMatrix, this.dominatedCandidates, listSize),
+                this.preprocessTimeInSeconds, this.dominanceComplete);
+    }
+
+    private static BitSet toBitSet(Set<Integer> candidates) {
+        BitSet candidateFlags = new BitSet();
+        candidates.forEach(candidateFlags::set);
+        return candidateFlags;
+    }
+
+    private static int[] calculateCoverageSizes(IncidenceMatrix incidenceMatrix) {
+        int[] coverageSizes = new int[incidenceMatrix.getNumberOfCandidates()];
+        for (int candidateIndex = 0; candidateIndex < coverageSizes.length; candidateIndex += 1) {
+            coverageSizes[candidateIndex] = incidenceMatrix.getCoverageSize(candidateIndex);
+        }
+        return coverageSizes;
+    }
+
+    /**
+     * Mandatory candidates are the fixed candidates from instance reduction, plus the only non-dominated candidate
+     * covering a sample.
+     */
+    private Set<Integer> findMandatoryCandidates(Set<Integer> fixedCandidates) {
+        Set<Integer> mandatoryCandidates = new HashSet<>(fixedCandidates);
+
+        for (int sampleIndex = 0; sampleIndex < this.getNumberOfSamples(); sampleIndex += 1) {
+            int nonDominatedCandidates = 0;
+            int lastNonDominatedCandidate = -1;
+
+            for (int position = incidenceMatrix.getCandidatesStart(sampleIndex);
+                 position < incidenceMatrix.getCandidatesEnd(sampleIndex); position += 1) {
+                int candidateIndex = incidenceMatrix.getCandidate(position);
+                if (!this.isDominatedCandidate(candidateIndex)) {
+                    nonDominatedCandidates += 1;
+                    lastNonDominatedCandidate = candidateIndex;
+                }
+            }
+
+            if (nonDominatedCandidates == 1) {
+                mandatoryCandidates.add(lastNonDominatedCandidate);
+            }
+        }
+
+        logger.info("Mandatory candidates found: " + mandatoryCandidates.size());
+        return Set.copyOf(mandatoryCandidates);
+    }
+
+    public IncidenceMatrix getIncidenceMatrix() {
+        return this.incidenceMatrix;
+    }
+
+    /**
+     * The instance as loaded, including samples removed by sample dominance. Solutions should be validated against it.
+     */
+    public IncidenceMatrix getOriginalIncidenceMatrix() {
+        return this.originalIncidenceMatrix;
+    }
+
+    public int getOriginalSampleIndex(int sampleIndex) {
+        return this.originalSampleIndexes[sampleIndex];
+    }
+
+    int[] getOriginalSampleIndexes() {
+        return this.originalSampleIndexes;
+    }
+
+    public int getNumberOfCandidates() {
+        return this.incidenceMatrix.getNumberOfCandidates();
+    }
+
+    public int getNumberOfSamples() {
+        return this.incidenceMatrix.getNumberOfSamples();
+    }
+
+    public Set<Integer> getDominatedCandidates() {
+        return this.dominatedCandidates;
+    }
+
+    public boolean isDominatedCandidate(int candidateIndex) {
+        return this.dominatedFlags.get(candidateIndex);
+    }
+
+    public Set<Integer> getMandatoryCandidates() {
+        return this.mandatoryCandidates;
+    }
+
+    public boolean isMandatoryCandidate(int candidateIndex) {
+        return this.mandatoryFlags.get(candidateIndex);
+    }
+
+    /**
+     * Number of samples covered by each candidate, indexed by candidate.
+     */
+    int[] getCoverageSizes() {
+        return this.coverageSizes;
+    }
+
+    CandidateLists getCandidateLists() {
+        return this.candidateLists;
+    }
+
+    /**
+     * False if dominance analysis stopped at its deadline, so some dominated candidates or samples may remain.
+     */
+    public boolean isDominanceComplete() {
+        return this.dominanceComplete;
+    }
+
+    public long getPreprocessTimeInSeconds() {
+        return this.preprocessTimeInSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "SetCoveringInstance{" +
+                "incidenceMatrix=" + incidenceMatrix +
+                ", dominatedCandidates.size()=" + dominatedCandidates.size() +
+                ", mandatoryCandidates.size()=" + mandatoryCandidates.size() +
+                ", candidateListSize=" + candidateLists.getListSize() +
+                '}';
+    }
+}
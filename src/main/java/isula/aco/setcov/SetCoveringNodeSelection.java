@@ -0,0 +1,97 @@
+package isula.aco.setcov;
+
+import isula.aco.AntPolicy;
+import isula.aco.AntPolicyType;
+import isula.aco.ConfigurationProvider;
+
+/**
+ * Random proportional node selection, as in RandomNodeSelection, working on the ant's primitive buffers. The
+ * neighbourhood and the prefix sums of the selection weights are written to arrays owned by the ant, and the random
+ * numbers come from the ant's own generator, so a construction step allocates nothing. Weights come from the
+ * environment's power tables rather than Math.pow, and the roulette is a binary search over the prefix sums.
+ * <p>
+ * If the configuration provides a best choice probability q0, the pseudo-random-proportional rule of Ant Colony System
+ * applies: with probability q0, the candidate with the largest weight is taken directly.
+ */
+public class SetCoveringNodeSelection extends AntPolicy<Integer, SetCoveringEnvironment> {
+
+    public SetCoveringNodeSelection() {
+        super(AntPolicyType.NODE_SELECTION);
+    }
+
+    @Override
+    public boolean applyPolicy(SetCoveringEnvironment environment, ConfigurationProvider configurationProvider) {
+        AntForSetCovering ant = (AntForSetCovering) this.getAnt();
+
+        int neighbourhoodSize = ant.fillNeighbourhood(environment);
+        if (neighbourhoodSize == 0) {
+            return false;
+        }
+
+        int selectedPosition = selectPosition(ant, neighbourhoodSize, environment, configurationProvider);
+        ant.visitNode(ant.getNeighbourhoodBuffer()[selectedPosition], environment);
+        return true;
+    }
+
+    /**
+     * Chooses among the first neighbourhoodSize candidates of the ant's neighbourhood buffer.
+     *
+     * @return The position of the chosen candidate in the buffer.
+     */
+    static int selectPosition(AntForSetCovering ant, int neighbourhoodSize, SetCoveringEnvironment environment,
+                              ConfigurationProvider configurationProvider) {
+        int[] neighbourhood = ant.getNeighbourhoodBuffer();
+        double[] selectionWeights = ant.getSelectionWeights();
+        double[] heuristicPowers = environment.getHeuristicPowers(configurationProvider.getHeuristicImportance());
+        double[] pheromonePowers = environment.getPheromonePowers(configurationProvider.getPheromoneImportance());
+
+        double bestChoiceProbability = configurationProvider instanceof SetCoveringConfigurationProvider ?
+                ((SetCoveringConfigurationProvider) configurationProvider).getBestChoiceProbability() : 0.0;
+
+        double totalWeight = 0.0;
+        double bestWeight = -1.0;
+        int bestPosition = 0;
+        for (int position = 0; position < neighbourhoodSize; position += 1) {
+            int candidateIndex = neighbourhood[position];
+            double selectionWeight = heuristicPowers[ant.getCoverageGain(candidateIndex)] *
+                    pheromonePowers[candidateIndex];
+
+            if (selectionWeight > bestWeight) {
+                bestWeight = selectionWeight;
+                bestPosition = position;
+            }
+            totalWeight += selectionWeight;
+            selectionWeights[position] = totalWeight;
+        }
+
+        if (bestChoiceProbability > 0 && ant.getRandom().nextDouble() < bestChoiceProbability) {
+            return bestPosition;
+        } else if (totalWeight > 0) {
+            return getRoulettePosition(selectionWeights, neighbourhoodSize, ant.getRandom().nextDouble() * totalWeight);
+        }
+
+        return ant.getRandom().nextInt(neighbourhoodSize);
+    }
+
+    /**
+     * The first position whose prefix sum is above the threshold, so candidates with no weight are never selected.
+     */
+    static int getRoulettePosition(double[] prefixSums, int size, double threshold) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (prefixSums[middle] > threshold) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return "SetCoveringNodeSelection{}";
+    }
+}
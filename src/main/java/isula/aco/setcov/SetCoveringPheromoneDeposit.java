@@ -0,0 +1,36 @@
+package isula.aco.setcov;
+
+import isula.aco.Ant;
+import isula.aco.ConfigurationProvider;
+import isula.aco.DaemonAction;
+import isula.aco.DaemonActionType;
+import isula.aco.algorithms.antsystem.AntSystemConfigurationProvider;
+
+/**
+ * Every ant deposits the deposit factor divided by its solution cost on its components, as in OfflinePheromoneUpdate.
+ * Components are read from the ant's SetCoveringSolution and written straight to the pheromone vector, so nothing is
+ * boxed.
+ */
+public class SetCoveringPheromoneDeposit extends DaemonAction<Integer, SetCoveringEnvironment> {
+
+    public SetCoveringPheromoneDeposit() {
+        super(DaemonActionType.AFTER_ITERATION_CONSTRUCTION);
+    }
+
+    @Override
+    public void applyDaemonAction(ConfigurationProvider configurationProvider) {
+        double depositFactor = ((AntSystemConfigurationProvider) configurationProvider).getPheromoneDepositFactor();
+
+        for (Ant<Integer, SetCoveringEnvironment> ant : this.getAntColony().getHive()) {
+            SetCoveringSolution solution = ((AntForSetCovering) ant).getSelectedCandidates();
+            if (solution.size() > 0) {
+                this.getEnvironment().depositPheromone(solution, depositFactor / solution.size());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SetCoveringPheromoneDeposit{}";
+    }
+}
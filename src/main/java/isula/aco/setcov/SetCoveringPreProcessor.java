@@ -1,23 +1,31 @@
 package isula.aco.setcov;
 
 import isula.aco.exception.ConfigurationException;
-import org.apache.commons.math3.util.Combinations;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.Temporal;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.StreamSupport;
 
 public class SetCoveringPreProcessor {
 
     private static final Logger logger = Logger.getLogger(SetCoveringPreProcessor.class.getName());
 
-    private Map<Integer, Set<Integer>> samplesPerCandidate;
-    private final HashMap<Integer, Set<Integer>> candidatesPerSample;
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
+
+    private int[][] candidatesPerSample;
+    private IncidenceMatrix incidenceMatrix;
+
+    private int[] originalSampleIndexes;
+    private IncidenceMatrix originalIncidenceMatrix;
+    private final BitSet fixedCandidates;
+    private final BitSet removedCandidates;
+    private Path checkpointInstanceFile;
+    private Instant dominanceDeadline;
+    private boolean dominanceComplete = true;
     public final Duration preprocessingTimeLimit;
 
 
@@ -25,68 +33,246 @@ public class SetCoveringPreProcessor {
     private int numberOfSamples;
 
     public SetCoveringPreProcessor(Duration preprocessingTimeLimit) {
-        this.samplesPerCandidate = new HashMap<>();
-        this.candidatesPerSample = new HashMap<>();
+        this.candidatesPerSample = new int[0][];
+        this.fixedCandidates = new BitSet();
+        this.removedCandidates = new BitSet();
         this.preprocessingTimeLimit = preprocessingTimeLimit;
     }
 
     public void setNumberOfCandidates(int numberOfCandidates) {
         this.numberOfCandidates = numberOfCandidates;
-
-        IntStream.range(0, numberOfCandidates)
-                .forEachOrdered((candidateIndex) -> samplesPerCandidate.put(candidateIndex, new HashSet<>()));
+        this.incidenceMatrix = null;
     }
 
 
     public void addCandidatesForSample(int sampleIndex, String[] candidatesAsTokens) {
-        Set<Integer> candidateList = Arrays.stream(candidatesAsTokens)
-                .map(Integer::parseInt)
-                .collect(Collectors.toUnmodifiableSet());
-        this.candidatesPerSample.put(sampleIndex, candidateList);
+        int[] candidateList = Arrays.stream(candidatesAsTokens)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        this.addCandidatesForSample(sampleIndex, candidateList);
+    }
+
+    /**
+     * Stores the candidates covering a sample. The array is kept, not copied.
+     */
+    public void addCandidatesForSample(int sampleIndex, int[] candidateList) {
+        if (sampleIndex >= this.candidatesPerSample.length) {
+            throw new ConfigurationException("Sample " + sampleIndex + " is out of range. You need to set the number " +
+                    "of samples before adding candidates");
+        }
 
-        candidateList.stream()
-                .unordered()
-                .forEach((candidateIndex) -> samplesPerCandidate.get(candidateIndex).add(sampleIndex));
+        this.candidatesPerSample[sampleIndex] = candidateList;
+        this.incidenceMatrix = null;
     }
 
+    /**
+     * Compact representation of the problem instance. It is built on first request, and rebuilt only if candidates are
+     * added afterwards.
+     */
+    public IncidenceMatrix getIncidenceMatrix() {
+        if (this.incidenceMatrix == null) {
+            this.incidenceMatrix = IncidenceMatrix.fromCandidatesPerSample(this.numberOfCandidates,
+                    this.candidatesPerSample);
+        }
+
+        return this.incidenceMatrix;
+    }
+
+    /**
+     * Candidates removed by instance reduction, including the fixed ones, cover nothing in the kernel. They are not
+     * reported as dominated.
+     */
     public Set<Integer> findDominatedCandidates() {
 
+        BitSet dominatedCandidates = this.analyseCandidateDominance();
+        dominatedCandidates.andNot(this.removedCandidates);
+        return dominatedCandidates.stream()
+                .boxed()
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    BitSet analyseCandidateDominance() {
         logger.info("Starting dominance analysis");
 
-        if (this.getNumberOfCandidates() == 0 || this.getNumberOfSamples() == 0) {
+        boolean reducedToNothing = this.getNumberOfSamples() == 0 && this.originalIncidenceMatrix != null;
+        if (this.getNumberOfCandidates() == 0 || (this.getNumberOfSamples() == 0 && !reducedToNothing)) {
             throw new ConfigurationException("You need to set the number of candidates and samples before " +
                     "starting pre-processing");
         }
 
-        Set<Integer> dominatedCandidates = Collections.synchronizedSet(new HashSet<>());
+        Instant analysisStart = Instant.now();
+        Instant deadline = this.dominanceDeadline != null ? this.dominanceDeadline :
+                analysisStart.plus(preprocessingTimeLimit);
+        IncidenceMatrix incidenceMatrix = this.getIncidenceMatrix();
+        DominanceAnalysis dominanceAnalysis = new DominanceAnalysis(incidenceMatrix);
+
+        if (this.checkpointInstanceFile == null) {
+            DominanceCheckpoint checkpoint = new DominanceCheckpoint(incidenceMatrix.getFingerprint(),
+                    this.getNumberOfCandidates());
+            dominanceAnalysis.resume(checkpoint, deadline, (progress) -> {
+            });
+            this.dominanceComplete &= checkpoint.isComplete();
+            logger.info("Dominance analysis finished in " +
+                    Duration.between(analysisStart, Instant.now()).toMillis() + " ms.");
+            return checkpoint.getDominatedCandidates();
+        }
+
+        long fingerprint = incidenceMatrix.getFingerprint();
+        Path checkpointFile = DominanceCheckpoint.getCheckpointFile(this.checkpointInstanceFile, fingerprint);
+        DominanceCheckpoint checkpoint = DominanceCheckpoint.loadOrCreate(checkpointFile, fingerprint,
+                this.getNumberOfCandidates());
+
+        if (!checkpoint.isComplete()) {
+            Instant[] lastSave = {analysisStart};
+            dominanceAnalysis.resume(checkpoint, deadline, (progress) -> {
+                if (Duration.between(lastSave[0], Instant.now()).compareTo(CHECKPOINT_INTERVAL) >= 0) {
+                    progress.save(checkpointFile);
+                    lastSave[0] = Instant.now();
+                }
+            });
+            checkpoint.save(checkpointFile);
+        }
+        this.dominanceComplete &= checkpoint.isComplete();
+
+        logger.info("Dominance analysis finished in " +
+                Duration.between(analysisStart, Instant.now()).toMillis() + " ms. Checkpoint: " + checkpointFile);
+        return checkpoint.getDominatedCandidates();
+    }
+
+    /**
+     * Sets a single deadline for every dominance analysis from now on, instead of preprocessingTimeLimit per analysis.
+     */
+    public void setDominanceDeadline(Instant dominanceDeadline) {
+        this.dominanceDeadline = dominanceDeadline;
+    }
+
+    public Instant getDominanceDeadline() {
+        return this.dominanceDeadline;
+    }
+
+    /**
+     * False if any candidate dominance analysis so far stopped at its deadline, so some dominated candidates may have
+     * been missed.
+     */
+    public boolean isDominanceComplete() {
+        return this.dominanceComplete;
+    }
+
+    /**
+     * Persists dominance analysis progress next to the instance file, so later runs on the same instance resume where
+     * the last one stopped instead of starting over. Every stage of instance reduction gets its own checkpoint.
+     */
+    public void enableDominanceCheckpoints(Path instanceFile) {
+        this.checkpointInstanceFile = instanceFile;
+    }
+
+    /**
+     * Removes every sample whose covering candidates are a superset of the covering candidates of another sample:
+     * covering the smaller sample always covers the larger one. Of several identical samples, only the first is kept.
+     * Remaining samples are renumbered, and getOriginalSampleIndexes maps them back to the instance as loaded.
+     *
+     * @return Number of samples removed.
+     */
+    public int removeDominatedSamples() {
+        logger.info("Starting sample dominance analysis");
+
+        DominanceAnalysis dominanceAnalysis = new DominanceAnalysis(this.getIncidenceMatrix().transpose());
+        BitSet dominatedSamples = dominanceAnalysis.findSupersetCandidates();
+
+        this.removeSamples(dominatedSamples);
+        logger.info(dominatedSamples.cardinality() + " dominated samples removed. Remaining samples: " +
+                this.getNumberOfSamples());
+        return dominatedSamples.cardinality();
+    }
+
+    void removeSamples(BitSet samplesToRemove) {
+        if (samplesToRemove.isEmpty()) {
+            return;
+        }
+
+        IncidenceMatrix currentMatrix = this.getIncidenceMatrix();
+        if (this.originalIncidenceMatrix == null) {
+            this.originalIncidenceMatrix = currentMatrix;
+        }
+
+        int[] currentSampleIndexes = this.getOriginalSampleIndexes();
+        int remainingSamples = this.numberOfSamples - samplesToRemove.cardinality();
+        int[][] remainingCandidates = new int[remainingSamples][];
+        int[] remainingSampleIndexes = new int[remainingSamples];
+
+        int newSampleIndex = 0;
+        for (int sampleIndex = samplesToRemove.nextClearBit(0); sampleIndex < this.numberOfSamples;
+             sampleIndex = samplesToRemove.nextClearBit(sampleIndex + 1)) {
+            remainingCandidates[newSampleIndex] = currentMatrix.getCandidates(sampleIndex);
+            remainingSampleIndexes[newSampleIndex] = currentSampleIndexes[sampleIndex];
+            newSampleIndex += 1;
+        }
+
+        this.candidatesPerSample = remainingCandidates;
+        this.originalSampleIndexes = remainingSampleIndexes;
+        this.numberOfSamples = remainingSamples;
+        this.incidenceMatrix = null;
+    }
+
+    /**
+     * Removes candidates from every sample they cover. Candidate indexes are not renumbered: removed candidates simply
+     * cover nothing.
+     */
+    void removeCandidates(BitSet candidatesToRemove) {
+        if (candidatesToRemove.isEmpty()) {
+            return;
+        }
 
-        Combinations combinations = new Combinations(this.getNumberOfCandidates(), 2);
-        Temporal executionStartTime = Instant.now();
-        StreamSupport.stream(combinations.spliterator(), true)
-                .unordered()
-                .takeWhile((combination) -> Duration.between(executionStartTime, Instant.now()).compareTo(preprocessingTimeLimit) < 0)
-                .forEach((candidates) -> {
-                    int candidateIndex = candidates[0];
-                    int opponentIndex = candidates[1];
+        IncidenceMatrix currentMatrix = this.getIncidenceMatrix();
+        if (this.originalIncidenceMatrix == null) {
+            this.originalIncidenceMatrix = currentMatrix;
+        }
+
+        for (int sampleIndex = 0; sampleIndex < this.numberOfSamples; sampleIndex += 1) {
+            this.candidatesPerSample[sampleIndex] = Arrays.stream(currentMatrix.getCandidates(sampleIndex))
+                    .filter(candidateIndex -> !candidatesToRemove.get(candidateIndex))
+                    .toArray();
+        }
+        this.removedCandidates.or(candidatesToRemove);
+        this.incidenceMatrix = null;
+    }
 
-                    Set<Integer> candidateSamples = this.samplesPerCandidate.get(candidateIndex);
-                    Set<Integer> opponentSamples = this.samplesPerCandidate.get(opponentIndex);
+    void addFixedCandidates(BitSet candidates) {
+        this.fixedCandidates.or(candidates);
+    }
 
-                    if (candidateSamples != null && opponentSamples != null) {
+    /**
+     * Candidates that instance reduction already placed in every solution. The samples they cover are no longer part
+     * of the instance.
+     */
+    public Set<Integer> getFixedCandidates() {
+        return this.fixedCandidates.stream()
+                .boxed()
+                .collect(Collectors.toUnmodifiableSet());
+    }
 
-                        if (opponentSamples.size() >= candidateSamples.size() &&
-                                opponentSamples.containsAll(candidateSamples)) {
-                            dominatedCandidates.add(candidateIndex);
-                        } else if (candidateSamples.size() > opponentSamples.size() &&
-                                candidateSamples.containsAll(opponentSamples)) {
-                            dominatedCandidates.add(opponentIndex);
-                        }
-                    }
-                });
+    /**
+     * For every current sample, its index in the instance as loaded.
+     */
+    public int[] getOriginalSampleIndexes() {
+        if (this.originalSampleIndexes == null) {
+            return IntStream.range(0, this.numberOfSamples).toArray();
+        }
 
-        return Collections.unmodifiableSet(dominatedCandidates);
+        return this.originalSampleIndexes;
     }
 
+    /**
+     * The instance as loaded, before any sample was removed. Solutions should be validated against it.
+     */
+    public IncidenceMatrix getOriginalIncidenceMatrix() {
+        if (this.originalIncidenceMatrix == null) {
+            return this.getIncidenceMatrix();
+        }
+
+        return this.originalIncidenceMatrix;
+    }
 
     public int getNumberOfCandidates() {
         return this.numberOfCandidates;
@@ -99,14 +285,16 @@ public class SetCoveringPreProcessor {
 
     public void setNumberOfSamples(int numberOfSamples) {
         this.numberOfSamples = numberOfSamples;
+        this.candidatesPerSample = Arrays.copyOf(this.candidatesPerSample, numberOfSamples);
+        this.incidenceMatrix = null;
     }
 
     public Map<Integer, Set<Integer>> getCandidatesPerSample() {
-        return this.candidatesPerSample;
+        return this.getIncidenceMatrix().getCandidatesPerSample();
     }
 
     public Map<Integer, Set<Integer>> getSamplesPerCandidate() {
-        return this.samplesPerCandidate;
+        return this.getIncidenceMatrix().getSamplesPerCandidate();
     }
 
 
@@ -0,0 +1,127 @@
+package isula.aco.setcov;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Binary cache of a pre-processed environment: the reduced and original incidence matrices, the original sample
+ * indexes, and the dominated and mandatory candidates. Its header records a hash of the instance file it was built
+ * from, whether instance reduction ran, and whether dominance analysis was complete. It is only used while the file
+ * and the reduction setting stay the same, and never when dominance analysis was cut short: the next run must resume
+ * the analysis from its checkpoint instead.
+ */
+public final class SetCoveringSnapshot {
+
+    private static final Logger logger = Logger.getLogger(SetCoveringSnapshot.class.getName());
+
+    private static final int MAGIC_NUMBER = 0x5343534e;
+    private static final int FILE_FORMAT_VERSION = 2;
+
+    private SetCoveringSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first, so an interrupted write never leaves a corrupt snapshot behind.
+     * Nothing is written if dominance analysis was incomplete.
+     *
+     * @param reducedInstance Whether the environment went through instance reduction and dominance analysis.
+     * @return True if the snapshot was written.
+     */
+    public static boolean save(SetCoveringEnvironment environment, Path snapshotFile, byte[] sourceHash,
+                               boolean reducedInstance) throws IOException {
+        boolean dominanceComplete = environment.getInstance().isDominanceComplete();
+        if (!dominanceComplete) {
+            logger.info("Not writing snapshot " + snapshotFile + ": dominance analysis is incomplete.");
+            return false;
+        }
+
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeInt(sourceHash.length);
+            output.write(sourceHash);
+            output.writeBoolean(reducedInstance);
+            output.writeBoolean(dominanceComplete);
+
+            environment.getIncidenceMatrix().writeTo(output);
+            boolean samplesRemoved = environment.getOriginalIncidenceMatrix() != environment.getIncidenceMatrix();
+            output.writeBoolean(samplesRemoved);
+            if (samplesRemoved) {
+                environment.getOriginalIncidenceMatrix().writeTo(output);
+            }
+
+            IncidenceMatrix.writeArray(output, environment.getOriginalSampleIndexes());
+            IncidenceMatrix.writeArray(output, environment.getDominatedCandidates().stream().mapToInt(Integer::intValue).sorted().toArray());
+            IncidenceMatrix.writeArray(output, environment.getMandatoryCandidates().stream().mapToInt(Integer::intValue).sorted().toArray());
+        }
+
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Snapshot written to " + snapshotFile);
+        return true;
+    }
+
+    /**
+     * Loads an environment through a memory-mapped read.
+     *
+     * @param reducedInstance Whether the caller expects instance reduction and dominance analysis.
+     * @return The stored environment, or null if there is no snapshot, or it was built from a different instance file,
+     * with another reduction setting, with incomplete dominance analysis, or by another version of this format.
+     */
+    public static SetCoveringEnvironment load(Path snapshotFile, byte[] sourceHash, boolean reducedInstance)
+            throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != FILE_FORMAT_VERSION) {
+                logger.warning("Ignoring snapshot " + snapshotFile + ": unknown format.");
+                return null;
+            }
+
+            byte[] storedHash = new byte[buffer.getInt()];
+            buffer.get(storedHash);
+            if (!Arrays.equals(storedHash, sourceHash)) {
+                logger.info("Ignoring snapshot " + snapshotFile + ": the instance file has changed.");
+                return null;
+            }
+
+            boolean storedReducedInstance = buffer.get() != 0;
+            boolean dominanceComplete = buffer.get() != 0;
+            if (storedReducedInstance != reducedInstance || !dominanceComplete) {
+                logger.info("Ignoring snapshot " + snapshotFile + ": it was built with other reduction settings, or " +
+                        "before dominance analysis finished.");
+                return null;
+            }
+
+            IncidenceMatrix incidenceMatrix = IncidenceMatrix.readFrom(buffer);
+            IncidenceMatrix originalIncidenceMatrix = buffer.get() != 0 ? IncidenceMatrix.readFrom(buffer) : incidenceMatrix;
+            int[] originalSampleIndexes = IncidenceMatrix.readArray(buffer);
+            Set<Integer> dominatedCandidates = toSet(IncidenceMatrix.readArray(buffer));
+            Set<Integer> mandatoryCandidates = toSet(IncidenceMatrix.readArray(buffer));
+
+            logger.info("Snapshot loaded from " + snapshotFile + ": " + incidenceMatrix);
+            return new SetCoveringEnvironment(new SetCoveringInstance(incidenceMatrix, originalIncidenceMatrix,
+                    originalSampleIndexes, dominatedCandidates, mandatoryCandidates));
+        }
+    }
+
+    private static Set<Integer> toSet(int[] values) {
+        return Arrays.stream(values)
+                .boxed()
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,151 @@
+package isula.aco.setcov;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of selected candidates, stored densely in an int[] together with the position of every candidate in it, so
+ * membership, insertion and removal are constant time. Removing a candidate moves the last one into its place, so the
+ * order of components is not preserved, while replacing one keeps every position. Conversion to and from List is meant
+ * for the boundaries with Isula.
+ */
+public final class SetCoveringSolution {
+
+    private static final int ABSENT = -1;
+
+    private final int[] components;
+    private final int[] positions;
+    private int size;
+
+    public SetCoveringSolution(int numberOfCandidates) {
+        this.components = new int[numberOfCandidates];
+        this.positions = new int[numberOfCandidates];
+        Arrays.fill(this.positions, ABSENT);
+    }
+
+    /**
+     * Builds a solution from an Isula solution, ignoring null entries and repeated candidates.
+     */
+    public static SetCoveringSolution fromList(List<Integer> solution, int numberOfCandidates) {
+        SetCoveringSolution setCoveringSolution = new SetCoveringSolution(numberOfCandidates);
+        for (Integer candidateIndex : solution) {
+            if (candidateIndex != null) {
+                setCoveringSolution.add(candidateIndex);
+            }
+        }
+
+        return setCoveringSolution;
+    }
+
+    /**
+     * @return False if the candidate was already selected.
+     */
+    public boolean add(int candidateIndex) {
+        if (this.positions[candidateIndex] != ABSENT) {
+            return false;
+        }
+
+        this.components[this.size] = candidateIndex;
+        this.positions[candidateIndex] = this.size;
+        this.size += 1;
+        return true;
+    }
+
+    /**
+     * @return False if the candidate was not selected.
+     */
+    public boolean remove(int candidateIndex) {
+        int position = this.positions[candidateIndex];
+        if (position == ABSENT) {
+            return false;
+        }
+
+        int lastComponent = this.components[this.size - 1];
+        this.components[position] = lastComponent;
+        this.positions[lastComponent] = position;
+        this.positions[candidateIndex] = ABSENT;
+        this.size -= 1;
+        return true;
+    }
+
+    /**
+     * Puts the new candidate in the position of the old one, so the order of the other components is preserved.
+     *
+     * @return False if the old candidate was not selected or the new one already was.
+     */
+    public boolean replace(int oldCandidateIndex, int newCandidateIndex) {
+        int position = this.positions[oldCandidateIndex];
+        if (position == ABSENT || this.positions[newCandidateIndex] != ABSENT) {
+            return false;
+        }
+
+        this.components[position] = newCandidateIndex;
+        this.positions[newCandidateIndex] = position;
+        this.positions[oldCandidateIndex] = ABSENT;
+        return true;
+    }
+
+    public boolean contains(int candidateIndex) {
+        return this.positions[candidateIndex] != ABSENT;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Component at a position between 0 and size - 1.
+     */
+    public int get(int position) {
+        return this.components[position];
+    }
+
+    public int getNumberOfCandidates() {
+        return this.positions.length;
+    }
+
+    public void clear() {
+        for (int position = 0; position < this.size; position += 1) {
+            this.positions[this.components[position]] = ABSENT;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Replaces the contents of this solution with another one's, over the same candidates.
+     */
+    public void copyFrom(SetCoveringSolution otherSolution) {
+        this.clear();
+        for (int position = 0; position < otherSolution.size; position += 1) {
+            this.add(otherSolution.components[position]);
+        }
+    }
+
+    public SetCoveringSolution copy() {
+        SetCoveringSolution solutionCopy = new SetCoveringSolution(this.getNumberOfCandidates());
+        solutionCopy.copyFrom(this);
+        return solutionCopy;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(this.components, this.size);
+    }
+
+    public List<Integer> toList() {
+        List<Integer> solution = new ArrayList<>(this.size);
+        for (int position = 0; position < this.size; position += 1) {
+            solution.add(this.components[position]);
+        }
+
+        return solution;
+    }
+
+    @Override
+    public String toString() {
+        return "SetCoveringSolution{" +
+                "size=" + size +
+                ", components=" + Arrays.toString(this.toArray()) +
+                '}';
+    }
+}
@@ -0,0 +1,14 @@
+package isula.aco.setcov;
+
+/**
+ * Thrown by AnytimeMonitor to end the iterations of a colony before the solver's own iteration or time limit. The best
+ * solution is available from the AnytimeProgress that stopped the solver.
+ */
+public class SolverStoppedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SolverStoppedException(String message) {
+        super(message);
+    }
+}
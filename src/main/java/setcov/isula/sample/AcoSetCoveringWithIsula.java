@@ -1,24 +1,35 @@
 package setcov.isula.sample;
 
 import isula.aco.*;
-import isula.aco.algorithms.antsystem.OfflinePheromoneUpdate;
-import isula.aco.algorithms.antsystem.PerformEvaporation;
-import isula.aco.algorithms.antsystem.RandomNodeSelection;
 import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
 import isula.aco.setcov.AntForSetCovering;
+import isula.aco.setcov.AnytimeProgress;
+import isula.aco.setcov.ApplyExchangeSearch;
 import isula.aco.setcov.ApplyLocalSearch;
+import isula.aco.setcov.ConcurrentAntColony;
+import isula.aco.setcov.IslandModel;
+import isula.aco.setcov.PheromoneRestart;
+import isula.aco.setcov.ReductionPipeline;
 import isula.aco.setcov.SetCoveringEnvironment;
+import isula.aco.setcov.SetCoveringEvaporation;
+import isula.aco.setcov.SetCoveringInstance;
+import isula.aco.setcov.SetCoveringNodeSelection;
+import isula.aco.setcov.SetCoveringPheromoneDeposit;
 import isula.aco.setcov.SetCoveringPreProcessor;
-import isula.aco.tuning.AcoParameterTuner;
+import isula.aco.setcov.SetCoveringSnapshot;
+import isula.aco.setcov.SetCoveringSolution;
 import isula.aco.tuning.ParameterOptimisationTarget;
 
 import javax.naming.ConfigurationException;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 import static setcov.isula.sample.FileUtils.*;
@@ -31,12 +42,18 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
 
     private static final int NUMBER_OF_ITERATIONS = 150;
     private static final int NUMBER_OF_ANTS = 20;
+    private static final int STAGNATION_ITERATIONS = 50;
     private static final boolean PERFORM_PARAMETER_TUNNING = true;
     private static final Duration CONSTRUCTION_TIME_LIMIT = Duration.ofHours(1);
     public static final Duration PREPROCESING_TIME_LIMIT = Duration.ofHours(1);
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
 
     private final SetCoveringEnvironment setCoveringEnvironment;
     private String currentProcessingFile;
+    private IslandModel islandModel;
+    private ExecutorService constructionExecutor;
+    private Instant anytimeDeadline;
+    private int stagnationIterations = STAGNATION_ITERATIONS;
 
     public AcoSetCoveringWithIsula(SetCoveringEnvironment setCoveringEnvironment) {
         this.setCoveringEnvironment = setCoveringEnvironment;
@@ -49,17 +66,66 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
         String mode = args[0];
         String path = args[1];
         List<String> fileNames = getFilesToProcess(mode, path);
+        ExecutorService constructionExecutor = createConstructionExecutor(args);
 
         fileNames.forEach(fileName -> {
             try {
-                SetCoveringEnvironment setCoveringEnvironment = getSetCoveringEnvironment(fileName);
+                Instant anytimeDeadline = getAnytimeDeadline(Instant.now(), args);
+                SetCoveringEnvironment setCoveringEnvironment = getSetCoveringEnvironment(fileName, anytimeDeadline);
                 AcoSetCoveringWithIsula acoSetCoveringWithIsula = getCoordinatorInstance(fileName, setCoveringEnvironment);
+                acoSetCoveringWithIsula.setConstructionExecutor(constructionExecutor);
+                acoSetCoveringWithIsula.setIslandModel(createIslandModel(args));
+                acoSetCoveringWithIsula.setAnytimeDeadline(anytimeDeadline);
                 processProblemFile(fileName, setCoveringEnvironment, acoSetCoveringWithIsula);
             } catch (Exception e) {
                 logger.warning("Error processing: " + fileName);
                 e.printStackTrace();
             }
         });
+
+        if (constructionExecutor != null) {
+            constructionExecutor.shutdown();
+        }
+    }
+
+    /**
+     * An optional third argument sets the number of threads ants of a colony use to build their solutions. Without it,
+     * they are built one after the other.
+     */
+    protected static ExecutorService createConstructionExecutor(String... args) {
+        if (args.length > 2 && Integer.parseInt(args[2]) > 0) {
+            int constructionThreads = Integer.parseInt(args[2]);
+            logger.info("Building ant solutions with " + constructionThreads + " threads");
+            return new ForkJoinPool(constructionThreads);
+        }
+
+        return null;
+    }
+
+    /**
+     * An optional fifth argument enables the island model: every that many iterations, each colony sends its best
+     * solution to the next one in a ring. Without it, or with 0, colonies run independently.
+     */
+    protected static IslandModel createIslandModel(String... args) {
+        if (args.length > 4 && Integer.parseInt(args[4]) > 0) {
+            int migrationInterval = Integer.parseInt(args[4]);
+            logger.info("Migrating solutions between colonies every " + migrationInterval + " iterations");
+            return new IslandModel(PARALLEL_RUNS, migrationInterval, IslandModel.Topology.RING);
+        }
+
+        return null;
+    }
+
+    /**
+     * An optional fourth argument is the time budget per instance in seconds, counted from the start of its
+     * pre-processing. With it, instances are solved in anytime mode.
+     */
+    protected static Instant getAnytimeDeadline(Instant instanceStart, String... args) {
+        if (args.length > 3) {
+            return instanceStart.plusSeconds(Long.parseLong(args[3]));
+        }
+
+        return null;
     }
 
 
@@ -71,9 +137,10 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
         logger.info("Current instance: " + instanceName);
 
 
+        // Tuning runs complete solves without a deadline, so it does not fit in the anytime budget.
         BaseAntSystemConfiguration configurationProvider;
-        if (PERFORM_PARAMETER_TUNNING) {
-            configurationProvider = acoSetCoveringWithIsula.getOptimisedConfiguration(instanceName);
+        if (PERFORM_PARAMETER_TUNNING && acoSetCoveringWithIsula.getAnytimeDeadline() == null) {
+            configurationProvider = acoSetCoveringWithIsula.getOptimisedConfiguration(fileName);
         } else {
             configurationProvider = getDefaultAntSystemConfiguration();
         }
@@ -83,18 +150,70 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
 
         logger.info("Algorithm configuration: " + configurationProvider);
 
+        if (acoSetCoveringWithIsula.getAnytimeDeadline() != null) {
+            configurationProvider.setNumberOfIterations(Integer.MAX_VALUE);
+            AnytimeProgress anytimeProgress = acoSetCoveringWithIsula.solveProblemAnytime(instanceName,
+                setCoveringEnvironment, configurationProvider);
+            writeObjectToFile(instanceName + "_solver.txt", anytimeProgress);
+            return;
+        }
+
         AcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver = acoSetCoveringWithIsula.solveProblem(
             setCoveringEnvironment, configurationProvider);
         writeObjectToFile(instanceName + "_solver.txt", problemSolver);
 
-        List<Integer> solutionFound = problemSolver.getBestSolution();
+        SetCoveringSolution solutionFound = SetCoveringSolution.fromList(problemSolver.getBestSolution(),
+            setCoveringEnvironment.getNumberOfCandidates());
         FileUtils.writeSolutionToFile(instanceName, configurationProvider.getConfigurationName(), solutionFound);
     }
 
     protected static SetCoveringEnvironment getSetCoveringEnvironment(String fileName) throws IOException {
+        return getSetCoveringEnvironment(fileName, null);
+    }
+
+    /**
+     * With an anytime deadline, dominance analysis takes at most half of the time left until it, so the colonies keep
+     * the other half. An analysis stopped early leaves the instance partially reduced, and it is not stored as a
+     * snapshot.
+     */
+    protected static SetCoveringEnvironment getSetCoveringEnvironment(String fileName, Instant anytimeDeadline)
+        throws IOException {
+        Path snapshotFile = Paths.get(fileName + SNAPSHOT_EXTENSION);
+        byte[] instanceHash = getFileHash(Paths.get(fileName));
+        boolean performDominanceAnalysis = requiresDominationAnalysis(fileName);
+        SetCoveringEnvironment storedEnvironment = SetCoveringSnapshot.load(snapshotFile, instanceHash,
+            performDominanceAnalysis);
+        if (storedEnvironment != null) {
+            return storedEnvironment;
+        }
+
+        SetCoveringEnvironment setCoveringEnvironment = preprocessProblemFile(fileName, performDominanceAnalysis,
+            anytimeDeadline);
+        try {
+            SetCoveringSnapshot.save(setCoveringEnvironment, snapshotFile, instanceHash, performDominanceAnalysis);
+        } catch (IOException e) {
+            logger.warning("Could not write snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+
+        return setCoveringEnvironment;
+    }
+
+    private static SetCoveringEnvironment preprocessProblemFile(String fileName, boolean performDominanceAnalysis,
+                                                                Instant anytimeDeadline) throws IOException {
         SetCoveringPreProcessor dataPreProcessor = FileUtils.initialisePreProcessorFromFile(fileName);
-        return new SetCoveringEnvironment(dataPreProcessor,
-            requiresDominationAnalysis(fileName));
+        if (performDominanceAnalysis) {
+            dataPreProcessor.enableDominanceCheckpoints(Paths.get(fileName));
+            if (anytimeDeadline != null) {
+                Instant now = Instant.now();
+                Instant reductionDeadline = now.plus(Duration.between(now, anytimeDeadline).dividedBy(2));
+                Instant preprocessingDeadline = now.plus(PREPROCESING_TIME_LIMIT);
+                dataPreProcessor.setDominanceDeadline(reductionDeadline.isBefore(preprocessingDeadline) ?
+                    reductionDeadline : preprocessingDeadline);
+            }
+            new ReductionPipeline(dataPreProcessor).reduce();
+        }
+
+        return new SetCoveringEnvironment(dataPreProcessor, performDominanceAnalysis);
     }
 
     protected static AcoSetCoveringWithIsula getCoordinatorInstance(String fileName, SetCoveringEnvironment setCoveringEnvironment) {
@@ -115,23 +234,22 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
     }
 
 
-    private BaseAntSystemConfiguration getOptimisedConfiguration(String instanceName) throws FileNotFoundException {
-        List<Integer> numberOfAntsValues = Collections.singletonList(3);
-        List<Integer> numberOfIterationValues = Collections.singletonList(3);
-        List<Double> initialPheromoneValues = Collections.singletonList(1.0);
-        List<Double> pheromoneImportanceValues = Collections.singletonList(1.0);
+    private BaseAntSystemConfiguration getOptimisedConfiguration(String fileName) throws IOException {
+        BaseAntSystemConfiguration baseConfiguration = getDefaultAntSystemConfiguration();
+        baseConfiguration.setNumberOfAnts(3);
 
         List<Double> evaporationRatioValues = Arrays.asList(.1, .5, .9);
         List<Double> heuristicImportanceValues = Arrays.asList(1., 3., 5.);
 
-        AcoParameterTuner parameterTuner = new AcoParameterTuner(numberOfAntsValues, evaporationRatioValues,
-            numberOfIterationValues, initialPheromoneValues, heuristicImportanceValues, pheromoneImportanceValues);
+        SuccessiveHalvingTuner parameterTuner = new SuccessiveHalvingTuner(baseConfiguration, evaporationRatioValues,
+            heuristicImportanceValues, 1, 3, this.getNumberOfColonies());
 
         logger.info("Starting parameter tuning");
-        ConfigurationProvider configurationProvider = parameterTuner.getOptimalConfiguration(this);
-        writeObjectToFile(instanceName + "_tuning.txt", parameterTuner);
+        BaseAntSystemConfiguration configurationProvider = parameterTuner.getOptimalConfiguration(this,
+            Paths.get(fileName));
+        writeObjectToFile(getInstanceName(fileName) + "_tuning.txt", parameterTuner);
 
-        return new BaseAntSystemConfiguration(configurationProvider);
+        return configurationProvider;
     }
 
     @Override
@@ -151,18 +269,14 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
                                                                            ConfigurationProvider configurationProvider)
         throws ConfigurationException {
 
-        ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver = new ParallelAcoProblemSolver<>();
-        problemSolver.initialize(() -> new SetCoveringEnvironment(environment),
-            this::createAntColony,
-            configurationProvider,
-            CONSTRUCTION_TIME_LIMIT, PARALLEL_RUNS);
-
-        configureAntSystem(problemSolver);
+        ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver = createProblemSolver(environment,
+            configurationProvider, CONSTRUCTION_TIME_LIMIT);
 
         problemSolver.solveProblem();
-        List<Integer> solutionFound = problemSolver.getBestSolution();
+        SetCoveringSolution solutionFound = SetCoveringSolution.fromList(problemSolver.getBestSolution(),
+            environment.getNumberOfCandidates());
         logger.fine("Best solution found: " + solutionFound);
-        if (!isValidSolution(solutionFound, environment.getSamplesPerCandidate(), environment.getNumberOfSamples())) {
+        if (!isValidSolution(solutionFound, environment.getOriginalIncidenceMatrix())) {
             throw new RuntimeException("The solution found is not valid :(");
         }
 
@@ -170,8 +284,73 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
 
     }
 
+    /**
+     * Solves until the anytime deadline, or until the colonies stagnate. Every improvement of the global best is
+     * written to the solution file as soon as it is found.
+     */
+    protected AnytimeProgress solveProblemAnytime(String instanceName, SetCoveringEnvironment environment,
+                                                  BaseAntSystemConfiguration configurationProvider)
+        throws ConfigurationException {
+
+        AnytimeProgress anytimeProgress = new AnytimeProgress(this.anytimeDeadline, this.stagnationIterations,
+            solution -> writeImprovedSolution(instanceName, configurationProvider, environment, solution));
+
+        Duration remainingTime = Duration.between(Instant.now(), this.anytimeDeadline);
+        if (remainingTime.isNegative() || remainingTime.isZero()) {
+            logger.warning("No time left to solve " + instanceName);
+            return anytimeProgress;
+        }
+
+        ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver = createProblemSolver(environment,
+            configurationProvider, remainingTime);
+        problemSolver.addDaemonAction(anytimeProgress.createMonitors());
+
+        try {
+            problemSolver.solveProblem();
+        } catch (RuntimeException e) {
+            if (!anytimeProgress.isStopped()) {
+                throw e;
+            }
+        }
+
+        logger.info("Anytime run finished: " + anytimeProgress);
+        return anytimeProgress;
+    }
+
+    private static void writeImprovedSolution(String instanceName, BaseAntSystemConfiguration configurationProvider,
+                                              SetCoveringEnvironment environment, SetCoveringSolution solution) {
+        if (!isValidSolution(solution, environment.getOriginalIncidenceMatrix())) {
+            logger.warning("Ignoring an invalid solution of size " + solution.size());
+            return;
+        }
+
+        try {
+            FileUtils.writeSolutionToFile(instanceName, configurationProvider.getConfigurationName(), solution);
+        } catch (IOException e) {
+            logger.warning("Could not write the solution for " + instanceName + ": " + e.getMessage());
+        }
+    }
+
+    private ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> createProblemSolver(
+        SetCoveringEnvironment environment, ConfigurationProvider configurationProvider, Duration timeLimit) {
+
+        ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver = new ParallelAcoProblemSolver<>();
+        SetCoveringInstance instance = environment.getInstance();
+        problemSolver.initialize(() -> new SetCoveringEnvironment(instance),
+            this::createAntColony,
+            configurationProvider,
+            timeLimit, this.getNumberOfColonies());
+
+        configureAntSystem(problemSolver);
+        return problemSolver;
+    }
+
+    private int getNumberOfColonies() {
+        return this.islandModel != null ? this.islandModel.getNumberOfIslands() : PARALLEL_RUNS;
+    }
+
     public AntColony<Integer, SetCoveringEnvironment> createAntColony(ConfigurationProvider configurationProvider) {
-        return new AntColony<>(configurationProvider.getNumberOfAnts()) {
+        return new ConcurrentAntColony<>(configurationProvider.getNumberOfAnts(), this.constructionExecutor) {
             @Override
             protected Ant<Integer, SetCoveringEnvironment> createAnt(SetCoveringEnvironment environment) {
                 return new AntForSetCovering(environment);
@@ -183,13 +362,59 @@ public class AcoSetCoveringWithIsula implements ParameterOptimisationTarget {
     public void configureAntSystem(ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver) {
 
         problemSolver.addDaemonAction(StartPheromoneMatrix::new);
-        problemSolver.addDaemonAction(PerformEvaporation::new);
-        problemSolver.addDaemonAction(OfflinePheromoneUpdate::new);
+        problemSolver.addDaemonAction(SetCoveringEvaporation::new);
+        problemSolver.addDaemonAction(SetCoveringPheromoneDeposit::new);
+        problemSolver.addDaemonAction(PheromoneRestart::new);
+        if (this.islandModel != null) {
+            problemSolver.addDaemonAction(this.islandModel.createMigrationActions());
+        }
 
         problemSolver.getAntColonies()
             .forEach((colony) -> colony.addAntPolicies(
-                new RandomNodeSelection<>(), new ApplyLocalSearch()));
+                new SetCoveringNodeSelection(), new ApplyLocalSearch(), new ApplyExchangeSearch()));
+
+    }
+
+    public IslandModel getIslandModel() {
+        return islandModel;
+    }
+
+    /**
+     * Colonies exchange their best solutions as configured by the island model. Without one, they run independently.
+     */
+    public void setIslandModel(IslandModel islandModel) {
+        this.islandModel = islandModel;
+    }
+
+    public ExecutorService getConstructionExecutor() {
+        return constructionExecutor;
+    }
+
+    /**
+     * Ants of every colony build their solutions concurrently on this executor. It is shared by all colonies and is not
+     * shut down by the solver. Without one, ants are built sequentially.
+     */
+    public void setConstructionExecutor(ExecutorService constructionExecutor) {
+        this.constructionExecutor = constructionExecutor;
+    }
+
+    public Instant getAnytimeDeadline() {
+        return anytimeDeadline;
+    }
+
+    /**
+     * With a deadline, processProblemFile runs in anytime mode: it solves until the deadline or until stagnation, and
+     * writes every improved solution as soon as it is found. Without one, it runs a fixed number of iterations.
+     */
+    public void setAnytimeDeadline(Instant anytimeDeadline) {
+        this.anytimeDeadline = anytimeDeadline;
+    }
 
+    /**
+     * Number of iterations a colony may run in anytime mode without any colony improving the best solution.
+     */
+    public void setStagnationIterations(int stagnationIterations) {
+        this.stagnationIterations = stagnationIterations;
     }
 
     public String getCurrentProcessingFile() {
@@ -2,12 +2,20 @@ package setcov.isula.sample;
 
 import isula.aco.ConfigurationProvider;
 import isula.aco.algorithms.antsystem.AntSystemConfigurationProvider;
+import isula.aco.setcov.ApplyExchangeSearch;
+import isula.aco.setcov.SetCoveringConfigurationProvider;
 import isula.aco.tuning.BasicConfigurationProvider;
 
-public class BaseAntSystemConfiguration extends BasicConfigurationProvider implements AntSystemConfigurationProvider {
+import java.time.Duration;
+
+public class BaseAntSystemConfiguration extends BasicConfigurationProvider implements AntSystemConfigurationProvider,
+        SetCoveringConfigurationProvider {
 
 
     private double pheromoneDepositFactor = 0.0;
+    private double bestChoiceProbability = 0.0;
+    private int exchangeMoveBudget = ApplyExchangeSearch.DEFAULT_MOVE_BUDGET;
+    private Duration exchangeTimeBudget = ApplyExchangeSearch.DEFAULT_TIME_BUDGET;
 
     public BaseAntSystemConfiguration() {
 
@@ -16,6 +24,13 @@ public class BaseAntSystemConfiguration extends BasicConfigurationProvider imple
     public BaseAntSystemConfiguration(ConfigurationProvider configurationProvider) {
         super(configurationProvider);
         this.pheromoneDepositFactor = configurationProvider.getInitialPheromoneValue();
+        if (configurationProvider instanceof SetCoveringConfigurationProvider) {
+            SetCoveringConfigurationProvider setCoveringConfiguration =
+                    (SetCoveringConfigurationProvider) configurationProvider;
+            this.bestChoiceProbability = setCoveringConfiguration.getBestChoiceProbability();
+            this.exchangeMoveBudget = setCoveringConfiguration.getExchangeMoveBudget();
+            this.exchangeTimeBudget = setCoveringConfiguration.getExchangeTimeBudget();
+        }
     }
 
 
@@ -34,6 +49,9 @@ public class BaseAntSystemConfiguration extends BasicConfigurationProvider imple
                 ", heuristicImportance=" + getHeuristicImportance() +
                 ", pheromoneImportance=" + getPheromoneImportance() +
                 ", pheromoneDepositFactor=" + pheromoneDepositFactor +
+                ", bestChoiceProbability=" + bestChoiceProbability +
+                ", exchangeMoveBudget=" + exchangeMoveBudget +
+                ", exchangeTimeBudget=" + exchangeTimeBudget +
                 '}';
     }
 
@@ -45,4 +63,31 @@ public class BaseAntSystemConfiguration extends BasicConfigurationProvider imple
     public double getPheromoneDepositFactor() {
         return pheromoneDepositFactor;
     }
+
+    public void setBestChoiceProbability(double bestChoiceProbability) {
+        this.bestChoiceProbability = bestChoiceProbability;
+    }
+
+    @Override
+    public double getBestChoiceProbability() {
+        return bestChoiceProbability;
+    }
+
+    public void setExchangeMoveBudget(int exchangeMoveBudget) {
+        this.exchangeMoveBudget = exchangeMoveBudget;
+    }
+
+    @Override
+    public int getExchangeMoveBudget() {
+        return exchangeMoveBudget;
+    }
+
+    public void setExchangeTimeBudget(Duration exchangeTimeBudget) {
+        this.exchangeTimeBudget = exchangeTimeBudget;
+    }
+
+    @Override
+    public Duration getExchangeTimeBudget() {
+        return exchangeTimeBudget;
+    }
 }
@@ -1,10 +1,17 @@
 package setcov.isula.sample;
 
+import isula.aco.setcov.IncidenceMatrix;
 import isula.aco.setcov.SetCoveringPreProcessor;
+import isula.aco.setcov.SetCoveringSolution;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -16,7 +23,6 @@ public class FileUtils {
 
     private static final Logger logger = Logger.getLogger(FileUtils.class.getName());
 
-    private static final int UNASSIGNED = -1;
     private static final String TEAM_NAME = "Isula";
     private static final String ACADEMIC_PREFIX = "AC";
     private static final String SOLUTION_DIRECTORY = "/Users/cgavidia/Documents/GitHub/gecco2020-ocp-competition/solutions/";
@@ -44,25 +50,30 @@ public class FileUtils {
         return true;
     }
 
-    static void writeSolutionToFile(String instanceName, String algorithmName, List<Integer> solutionFound) throws FileNotFoundException {
-        String outputFile = getOutputFile(instanceName, algorithmName);
-        PrintWriter printWriter = new PrintWriter(outputFile);
-
-        int solutionSize = 0;
+    /**
+     * Writes the solution to a temporary file and renames it, so the output file always holds a complete solution.
+     */
+    static void writeSolutionToFile(String instanceName, String algorithmName, SetCoveringSolution solutionFound)
+            throws IOException {
+        Path outputFile = Paths.get(getOutputFile(instanceName, algorithmName));
+        Path temporaryFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
         StringBuilder solutionAsString = new StringBuilder();
-        for (Integer solutionComponent : solutionFound) {
-            if (solutionComponent != null) {
-                solutionSize += 1;
-                solutionAsString.append(solutionComponent).append(" ");
+        for (int position = 0; position < solutionFound.size(); position += 1) {
+            if (position > 0) {
+                solutionAsString.append(" ");
             }
+            solutionAsString.append(solutionFound.get(position));
         }
 
-        logger.fine("Solution size " + solutionSize + " Solution: " + solutionAsString);
-
-        printWriter.println(solutionSize);
-        printWriter.println(solutionAsString.substring(0, solutionAsString.length() - 1));
+        logger.fine("Solution size " + solutionFound.size() + " Solution: " + solutionAsString);
 
-        printWriter.close();
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile)) {
+            writer.write(Integer.toString(solutionFound.size()));
+            writer.newLine();
+            writer.write(solutionAsString.toString());
+            writer.newLine();
+        }
+        Files.move(temporaryFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
 
         logger.info("Solution written to " + outputFile);
     }
@@ -90,10 +101,37 @@ public class FileUtils {
 
     public static boolean isValidSolution(List<Integer> solutionFound, String fileName) throws IOException {
         SetCoveringPreProcessor preProcessor = initialisePreProcessorFromFile(fileName);
-        return isValidSolution(solutionFound, preProcessor.getSamplesPerCandidate(), preProcessor.getNumberOfSamples());
+        return isValidSolution(solutionFound, preProcessor.getIncidenceMatrix());
     }
 
 
+    public static boolean isValidSolution(List<Integer> solutionFound, IncidenceMatrix incidenceMatrix) {
+        return isValidSolution(SetCoveringSolution.fromList(solutionFound, incidenceMatrix.getNumberOfCandidates()),
+                incidenceMatrix);
+    }
+
+    public static boolean isValidSolution(SetCoveringSolution solutionFound, IncidenceMatrix incidenceMatrix) {
+        logger.info("Validating generated solution.");
+
+        int numberOfSamples = incidenceMatrix.getNumberOfSamples();
+        boolean[] samplesCovered = new boolean[numberOfSamples];
+        int pendingSamples = numberOfSamples;
+
+        for (int solutionPosition = 0; solutionPosition < solutionFound.size(); solutionPosition += 1) {
+            int candidateIndex = solutionFound.get(solutionPosition);
+            for (int position = incidenceMatrix.getSamplesStart(candidateIndex);
+                 position < incidenceMatrix.getSamplesEnd(candidateIndex); position += 1) {
+                int sampleIndex = incidenceMatrix.getSample(position);
+                if (!samplesCovered[sampleIndex]) {
+                    samplesCovered[sampleIndex] = true;
+                    pendingSamples -= 1;
+                }
+            }
+        }
+
+        return checkCoverage(samplesCovered, pendingSamples);
+    }
+
     public static boolean isValidSolution(List<Integer> solutionFound,
                                           Map<Integer, Set<Integer>> samplesPerCandidate,
                                           int numberOfSamples) {
@@ -113,9 +151,13 @@ public class FileUtils {
                 }
             }
         }
+        return checkCoverage(samplesCovered, pendingSamples);
+    }
+
+    private static boolean checkCoverage(boolean[] samplesCovered, int pendingSamples) {
         if (pendingSamples > 0) {
-            List<Integer> uncoveredSamples = IntStream.range(0, numberOfSamples)
-                    .filter((candidateIndex) -> !samplesCovered[candidateIndex])
+            List<Integer> uncoveredSamples = IntStream.range(0, samplesCovered.length)
+                    .filter((sampleIndex) -> !samplesCovered[sampleIndex])
                     .boxed()
                     .collect(Collectors.toList());
             logger.warning("Solution does not cover " + pendingSamples + " samples");
@@ -157,49 +199,33 @@ public class FileUtils {
     }
 
     public static SetCoveringPreProcessor initialisePreProcessorFromFile(String fileName) throws IOException {
+        SetCoveringPreProcessor dataPreProcessor = InstanceFileReader.readPreProcessor(Paths.get(fileName),
+                PREPROCESING_TIME_LIMIT);
 
-        int numberOfSamples;
-        int numberOfCandidates;
-
-        SetCoveringPreProcessor dataPreProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
-
-        int lineCounter = 0;
-        int sampleIndex = UNASSIGNED;
-        int candidatesForSample = UNASSIGNED;
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split(" ");
-
-                if (lineCounter == 0) {
-                    numberOfSamples = Integer.parseInt(tokens[0]);
-                    numberOfCandidates = Integer.parseInt(tokens[1]);
-
-                    dataPreProcessor.setNumberOfCandidates(numberOfCandidates);
-                    dataPreProcessor.setNumberOfSamples(numberOfSamples);
-
-                } else if (sampleIndex == UNASSIGNED && tokens.length == 1) {
-                    sampleIndex = Integer.parseInt(tokens[0]);
-                } else if (sampleIndex != UNASSIGNED && candidatesForSample == UNASSIGNED && tokens.length == 1) {
-                    candidatesForSample = Integer.parseInt(tokens[0]);
-                } else if (sampleIndex != UNASSIGNED && candidatesForSample != UNASSIGNED) {
-
-                    if (tokens.length != candidatesForSample) {
-                        throw new RuntimeException("Expecting " + candidatesForSample + " candidates for sample " + sampleIndex
-                                + " .Currently in file: " + tokens.length);
-                    }
+        logger.info("Problem information gathered from: " + fileName);
+        return dataPreProcessor;
+    }
 
-                    dataPreProcessor.addCandidatesForSample(sampleIndex, tokens);
+    /**
+     * SHA-256 of a file's contents, to check that a snapshot still matches its instance file.
+     */
+    public static byte[] getFileHash(Path file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
 
-                    sampleIndex = UNASSIGNED;
-                    candidatesForSample = UNASSIGNED;
-                }
-                lineCounter += 1;
+        try (InputStream input = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file)),
+                messageDigest)) {
+            byte[] buffer = new byte[1 << 16];
+            while (input.read(buffer) != -1) {
+                // Reading the stream updates the digest.
             }
         }
 
-        logger.info("Problem information gathered from: " + fileName);
-        return dataPreProcessor;
+        return messageDigest.digest();
     }
 
     public static List<Integer> getStoredSolution(String inputFileName) throws IOException {
@@ -0,0 +1,150 @@
+package setcov.isula.sample;
+
+import isula.aco.setcov.SetCoveringPreProcessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Loads instances in the cover format: a line with the number of samples and candidates, followed, for every sample,
+ * by a line with its index, a line with its number of candidates and a line with the candidates.
+ * <p>
+ * The file is read through a FileChannel into a reused buffer, and digits are parsed straight into int arrays. No
+ * String or boxed Integer is created while reading.
+ */
+public class InstanceFileReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int END_OF_FILE = -1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long lineNumber = 1;
+
+    public InstanceFileReader(Path instanceFile) throws IOException {
+        this.channel = FileChannel.open(instanceFile, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    public static SetCoveringPreProcessor readPreProcessor(Path instanceFile, Duration preprocessingTimeLimit)
+            throws IOException {
+        try (InstanceFileReader reader = new InstanceFileReader(instanceFile)) {
+            return reader.readPreProcessor(preprocessingTimeLimit);
+        }
+    }
+
+    public SetCoveringPreProcessor readPreProcessor(Duration preprocessingTimeLimit) throws IOException {
+        SetCoveringPreProcessor dataPreProcessor = new SetCoveringPreProcessor(preprocessingTimeLimit);
+
+        int numberOfSamples = this.nextInt();
+        int numberOfCandidates = this.nextInt();
+        this.skipLineEnd();
+        dataPreProcessor.setNumberOfCandidates(numberOfCandidates);
+        dataPreProcessor.setNumberOfSamples(numberOfSamples);
+
+        while (this.skipWhitespace() != END_OF_FILE) {
+            int sampleIndex = this.nextInt();
+            this.skipLineEnd();
+            int candidatesForSample = this.nextInt();
+            this.skipLineEnd();
+
+            int[] candidateList = new int[candidatesForSample];
+            for (int position = 0; position < candidatesForSample; position += 1) {
+                if (!this.hasIntOnLine()) {
+                    throw new RuntimeException("Expecting " + candidatesForSample + " candidates for sample " +
+                            sampleIndex + " .Currently in file: " + position);
+                }
+                candidateList[position] = this.nextInt();
+            }
+            if (this.hasIntOnLine()) {
+                throw new RuntimeException("Expecting " + candidatesForSample + " candidates for sample " +
+                        sampleIndex + " .Currently in file: more than " + candidatesForSample);
+            }
+            this.skipLineEnd();
+
+            dataPreProcessor.addCandidatesForSample(sampleIndex, candidateList);
+        }
+
+        return dataPreProcessor;
+    }
+
+    /**
+     * Parses the next non-negative integer, skipping any whitespace before it.
+     */
+    private int nextInt() throws IOException {
+        int current = this.skipWhitespace();
+        if (current < '0' || current > '9') {
+            throw new RuntimeException("Expecting a number at line " + this.lineNumber + ", found " +
+                    (current == END_OF_FILE ? "end of file" : "'" + (char) current + "'"));
+        }
+
+        int value = 0;
+        while (current >= '0' && current <= '9') {
+            value = value * 10 + (current - '0');
+            this.buffer.get();
+            current = this.peek();
+        }
+
+        return value;
+    }
+
+    /**
+     * Skips spaces on the current line, and tells whether a number follows before the line ends.
+     */
+    private boolean hasIntOnLine() throws IOException {
+        int current = this.peek();
+        while (current == ' ' || current == '\t' || current == '\r') {
+            this.buffer.get();
+            current = this.peek();
+        }
+
+        return current >= '0' && current <= '9';
+    }
+
+    private void skipLineEnd() throws IOException {
+        if (this.hasIntOnLine()) {
+            throw new RuntimeException("Unexpected number at line " + this.lineNumber);
+        }
+
+        if (this.peek() == '\n') {
+            this.buffer.get();
+            this.lineNumber += 1;
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int current = this.peek();
+        while (current == ' ' || current == '\t' || current == '\r' || current == '\n') {
+            if (current == '\n') {
+                this.lineNumber += 1;
+            }
+            this.buffer.get();
+            current = this.peek();
+        }
+
+        return current;
+    }
+
+    private int peek() throws IOException {
+        if (!this.buffer.hasRemaining()) {
+            this.buffer.clear();
+            int bytesRead = this.channel.read(this.buffer);
+            this.buffer.flip();
+            if (bytesRead <= 0) {
+                return END_OF_FILE;
+            }
+        }
+
+        return this.buffer.get(this.buffer.position()) & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -5,14 +5,17 @@ import isula.aco.AntColony;
 import isula.aco.ConfigurationProvider;
 import isula.aco.ParallelAcoProblemSolver;
 import isula.aco.setcov.AntForSetCovering;
+import isula.aco.setcov.ConcurrentAntColony;
 import isula.aco.setcov.ConstructPartialSolutionsForSetCovering;
 import isula.aco.setcov.SetCoveringEnvironment;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
 import static setcov.isula.sample.FileUtils.*;
@@ -33,17 +36,26 @@ public class IteratedAntsForSetCovering extends AcoSetCoveringWithIsula {
         String mode = args[0];
         String path = args[1];
         List<String> fileNames = getFilesToProcess(mode, path);
+        ExecutorService constructionExecutor = createConstructionExecutor(args);
 
         fileNames.forEach(fileName -> {
             try {
-                SetCoveringEnvironment setCoveringEnvironment = getSetCoveringEnvironment(fileName);
+                Instant anytimeDeadline = getAnytimeDeadline(Instant.now(), args);
+                SetCoveringEnvironment setCoveringEnvironment = getSetCoveringEnvironment(fileName, anytimeDeadline);
                 IteratedAntsForSetCovering acoSetCoveringWithIsula = getCoordinatorInstance(fileName, setCoveringEnvironment);
+                acoSetCoveringWithIsula.setConstructionExecutor(constructionExecutor);
+                acoSetCoveringWithIsula.setIslandModel(createIslandModel(args));
+                acoSetCoveringWithIsula.setAnytimeDeadline(anytimeDeadline);
                 processProblemFile(fileName, setCoveringEnvironment, acoSetCoveringWithIsula);
             } catch (Exception e) {
                 logger.warning("Error processing: " + fileName);
                 e.printStackTrace();
             }
         });
+
+        if (constructionExecutor != null) {
+            constructionExecutor.shutdown();
+        }
     }
 
 
@@ -56,7 +68,7 @@ public class IteratedAntsForSetCovering extends AcoSetCoveringWithIsula {
 
     @Override
     public AntColony<Integer, SetCoveringEnvironment> createAntColony(ConfigurationProvider configurationProvider) {
-        return new AntColony<>(configurationProvider.getNumberOfAnts()) {
+        return new ConcurrentAntColony<>(configurationProvider.getNumberOfAnts(), this.getConstructionExecutor()) {
             @Override
             protected Ant<Integer, SetCoveringEnvironment> createAnt(SetCoveringEnvironment environment) {
 
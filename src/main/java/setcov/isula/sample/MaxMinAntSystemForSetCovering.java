@@ -0,0 +1,83 @@
+package setcov.isula.sample;
+
+import isula.aco.ParallelAcoProblemSolver;
+import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
+import isula.aco.setcov.ApplyExchangeSearch;
+import isula.aco.setcov.ApplyLocalSearch;
+import isula.aco.setcov.MaxMinPheromoneUpdate;
+import isula.aco.setcov.PheromoneRestart;
+import isula.aco.setcov.SetCoveringEnvironment;
+import isula.aco.setcov.SetCoveringNodeSelection;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+import static setcov.isula.sample.FileUtils.*;
+
+/**
+ * MAX-MIN Ant System: only the iteration-best or best-so-far solution deposits pheromone, and trails stay between
+ * bounds derived from the cost of the best-so-far solution. See MaxMinPheromoneUpdate.
+ */
+public class MaxMinAntSystemForSetCovering extends AcoSetCoveringWithIsula {
+
+    private static final Logger logger = Logger.getLogger(MaxMinAntSystemForSetCovering.class.getName());
+
+    public MaxMinAntSystemForSetCovering(SetCoveringEnvironment setCoveringEnvironment) {
+        super(setCoveringEnvironment);
+    }
+
+    public static void main(String... args) throws IOException {
+        logger.info("MAX-MIN ANT SYSTEM FOR THE SET COVERING PROBLEM");
+
+        String mode = args[0];
+        String path = args[1];
+        List<String> fileNames = getFilesToProcess(mode, path);
+        ExecutorService constructionExecutor = createConstructionExecutor(args);
+
+        fileNames.forEach(fileName -> {
+            try {
+                Instant anytimeDeadline = getAnytimeDeadline(Instant.now(), args);
+                SetCoveringEnvironment setCoveringEnvironment = getSetCoveringEnvironment(fileName, anytimeDeadline);
+                MaxMinAntSystemForSetCovering acoSetCoveringWithIsula = getCoordinatorInstance(fileName,
+                        setCoveringEnvironment);
+                acoSetCoveringWithIsula.setConstructionExecutor(constructionExecutor);
+                acoSetCoveringWithIsula.setIslandModel(createIslandModel(args));
+                acoSetCoveringWithIsula.setAnytimeDeadline(anytimeDeadline);
+                processProblemFile(fileName, setCoveringEnvironment, acoSetCoveringWithIsula);
+            } catch (Exception e) {
+                logger.warning("Error processing: " + fileName);
+                e.printStackTrace();
+            }
+        });
+
+        if (constructionExecutor != null) {
+            constructionExecutor.shutdown();
+        }
+    }
+
+    protected static MaxMinAntSystemForSetCovering getCoordinatorInstance(String fileName,
+                                                                          SetCoveringEnvironment setCoveringEnvironment) {
+        MaxMinAntSystemForSetCovering acoSetCoveringWithIsula = new MaxMinAntSystemForSetCovering(setCoveringEnvironment);
+        acoSetCoveringWithIsula.setCurrentProcessingFile(fileName);
+        return acoSetCoveringWithIsula;
+    }
+
+    @Override
+    public void configureAntSystem(ParallelAcoProblemSolver<Integer, SetCoveringEnvironment> problemSolver) {
+
+        problemSolver.addDaemonAction(StartPheromoneMatrix::new);
+        problemSolver.addDaemonAction(MaxMinPheromoneUpdate::new);
+        problemSolver.addDaemonAction(PheromoneRestart::new);
+        if (this.getIslandModel() != null) {
+            problemSolver.addDaemonAction(this.getIslandModel().createMigrationActions());
+        }
+
+        problemSolver.getAntColonies()
+                .forEach((colony) -> colony.addAntPolicies(
+                        new SetCoveringNodeSelection(), new ApplyLocalSearch(), new ApplyExchangeSearch()));
+
+    }
+}
@@ -0,0 +1,281 @@
+package setcov.isula.sample;
+
+import isula.aco.tuning.ParameterOptimisationTarget;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static setcov.isula.sample.FileUtils.getFileHash;
+
+/**
+ * Tunes evaporation ratio and heuristic importance by successive halving. All configurations of the grid run
+ * concurrently with a small number of iterations; only the best third survives, and survivors run again with three
+ * times as many iterations, until one configuration is left or the maximum number of iterations is reached. The
+ * configuration returned has the maximum number of iterations.
+ * <p>
+ * Every evaluation may itself run several colonies in parallel, so the number of concurrent evaluations is the
+ * number of processors divided by the colonies per evaluation.
+ * <p>
+ * Results can be cached next to the instance file, together with its hash and the search space, so an instance is
+ * tuned only once.
+ */
+public class SuccessiveHalvingTuner {
+
+    private static final Logger logger = Logger.getLogger(SuccessiveHalvingTuner.class.getName());
+
+    private static final int REDUCTION_FACTOR = 3;
+    private static final String CACHE_EXTENSION = ".tuning";
+
+    private final BaseAntSystemConfiguration baseConfiguration;
+    private final List<Double> evaporationRatioValues;
+    private final List<Double> heuristicImportanceValues;
+    private final int minimumIterations;
+    private final int maximumIterations;
+    private final int coloniesPerEvaluation;
+
+    private final List<String> roundResults = new ArrayList<>();
+
+    /**
+     * @param baseConfiguration Values of every parameter that is not tuned.
+     * @param minimumIterations Iterations of the first round, where every configuration runs.
+     * @param maximumIterations Iterations of the last round.
+     */
+    public SuccessiveHalvingTuner(BaseAntSystemConfiguration baseConfiguration, List<Double> evaporationRatioValues,
+                                  List<Double> heuristicImportanceValues, int minimumIterations,
+                                  int maximumIterations) {
+        this(baseConfiguration, evaporationRatioValues, heuristicImportanceValues, minimumIterations,
+                maximumIterations, 1);
+    }
+
+    /**
+     * @param coloniesPerEvaluation Colonies running in parallel while evaluating a single configuration.
+     */
+    public SuccessiveHalvingTuner(BaseAntSystemConfiguration baseConfiguration, List<Double> evaporationRatioValues,
+                                  List<Double> heuristicImportanceValues, int minimumIterations,
+                                  int maximumIterations, int coloniesPerEvaluation) {
+        this.baseConfiguration = baseConfiguration;
+        this.evaporationRatioValues = evaporationRatioValues;
+        this.heuristicImportanceValues = heuristicImportanceValues;
+        this.minimumIterations = minimumIterations;
+        this.maximumIterations = Math.max(minimumIterations, maximumIterations);
+        this.coloniesPerEvaluation = Math.max(coloniesPerEvaluation, 1);
+    }
+
+    /**
+     * Returns the configuration stored for the instance file if it was tuned over the same search space. Otherwise,
+     * it tunes and stores the result.
+     */
+    public BaseAntSystemConfiguration getOptimalConfiguration(ParameterOptimisationTarget optimisationTarget,
+                                                              Path instanceFile) throws IOException {
+        Path cacheFile = instanceFile.resolveSibling(instanceFile.getFileName() + CACHE_EXTENSION);
+        String instanceHash = toHexString(getFileHash(instanceFile));
+
+        BaseAntSystemConfiguration storedConfiguration = this.loadConfiguration(cacheFile, instanceHash);
+        if (storedConfiguration != null) {
+            logger.info("Using tuned configuration from " + cacheFile);
+            return storedConfiguration;
+        }
+
+        BaseAntSystemConfiguration optimalConfiguration = this.getOptimalConfiguration(optimisationTarget);
+        try {
+            this.storeConfiguration(optimalConfiguration, cacheFile, instanceHash);
+        } catch (IOException e) {
+            logger.warning("Could not write tuning results to " + cacheFile + ": " + e.getMessage());
+        }
+
+        return optimalConfiguration;
+    }
+
+    public BaseAntSystemConfiguration getOptimalConfiguration(ParameterOptimisationTarget optimisationTarget) {
+        List<BaseAntSystemConfiguration> survivors = new ArrayList<>();
+        for (double evaporationRatio : this.evaporationRatioValues) {
+            for (double heuristicImportance : this.heuristicImportanceValues) {
+                BaseAntSystemConfiguration configuration = this.copyBaseConfiguration();
+                configuration.setEvaporationRatio(evaporationRatio);
+                configuration.setHeuristicImportance(heuristicImportance);
+                survivors.add(configuration);
+            }
+        }
+
+        int concurrentEvaluations = Math.max(1,
+                Runtime.getRuntime().availableProcessors() / this.coloniesPerEvaluation);
+        ExecutorService tuningExecutor = Executors.newFixedThreadPool(Math.min(survivors.size(),
+                concurrentEvaluations));
+        try {
+            int iterations = this.minimumIterations;
+            while (true) {
+                for (BaseAntSystemConfiguration configuration : survivors) {
+                    configuration.setNumberOfIterations(iterations);
+                }
+
+                double[] solutionCosts = evaluateConfigurations(survivors, optimisationTarget, tuningExecutor);
+                List<BaseAntSystemConfiguration> ranking = getRanking(survivors, solutionCosts);
+                this.recordRound(iterations, ranking, survivors, solutionCosts);
+
+                if (ranking.size() == 1 || iterations >= this.maximumIterations) {
+                    ranking.get(0).setNumberOfIterations(this.maximumIterations);
+                    return ranking.get(0);
+                }
+
+                int numberOfSurvivors = (ranking.size() + REDUCTION_FACTOR - 1) / REDUCTION_FACTOR;
+                survivors = new ArrayList<>(ranking.subList(0, numberOfSurvivors));
+                iterations = Math.min(iterations * REDUCTION_FACTOR, this.maximumIterations);
+
+                if (survivors.size() == 1) {
+                    survivors.get(0).setNumberOfIterations(this.maximumIterations);
+                    return survivors.get(0);
+                }
+            }
+        } finally {
+            tuningExecutor.shutdown();
+        }
+    }
+
+    private static double[] evaluateConfigurations(List<BaseAntSystemConfiguration> configurations,
+                                                   ParameterOptimisationTarget optimisationTarget,
+                                                   ExecutorService tuningExecutor) {
+        List<Callable<Double>> evaluations = configurations.stream()
+                .map(configuration -> (Callable<Double>) () -> optimisationTarget.getSolutionCost(configuration))
+                .collect(Collectors.toList());
+
+        try {
+            List<Future<Double>> results = tuningExecutor.invokeAll(evaluations);
+            double[] solutionCosts = new double[results.size()];
+            for (int position = 0; position < solutionCosts.length; position += 1) {
+                solutionCosts[position] = results.get(position).get();
+            }
+            return solutionCosts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while tuning parameters", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not evaluate a configuration", e.getCause());
+        }
+    }
+
+    /**
+     * Configurations by increasing solution cost. Ties keep the order of the grid.
+     */
+    private static List<BaseAntSystemConfiguration> getRanking(List<BaseAntSystemConfiguration> configurations,
+                                                               double[] solutionCosts) {
+        return IntStream.range(0, configurations.size())
+                .boxed()
+                .sorted(Comparator.comparingDouble(position -> solutionCosts[position]))
+                .map(configurations::get)
+                .collect(Collectors.toList());
+    }
+
+    private void recordRound(int iterations, List<BaseAntSystemConfiguration> ranking,
+                             List<BaseAntSystemConfiguration> configurations, double[] solutionCosts) {
+        BaseAntSystemConfiguration bestConfiguration = ranking.get(0);
+        String roundResult = "iterations=" + iterations +
+                ", configurations=" + configurations.size() +
+                ", bestCost=" + solutionCosts[configurations.indexOf(bestConfiguration)] +
+                ", evaporationRatio=" + bestConfiguration.getEvaporationRatio() +
+                ", heuristicImportance=" + bestConfiguration.getHeuristicImportance();
+
+        logger.info("Tuning round finished: " + roundResult);
+        this.roundResults.add(roundResult);
+    }
+
+    private BaseAntSystemConfiguration copyBaseConfiguration() {
+        BaseAntSystemConfiguration configuration = new BaseAntSystemConfiguration(this.baseConfiguration);
+        configuration.setPheromoneDepositFactor(this.baseConfiguration.getPheromoneDepositFactor());
+        return configuration;
+    }
+
+    private String getSearchSpace() {
+        return "evaporationRatioValues=" + evaporationRatioValues +
+                ", heuristicImportanceValues=" + heuristicImportanceValues +
+                ", minimumIterations=" + minimumIterations +
+                ", maximumIterations=" + maximumIterations +
+                ", baseConfiguration=" + baseConfiguration;
+    }
+
+    private BaseAntSystemConfiguration loadConfiguration(Path cacheFile, String instanceHash) throws IOException {
+        if (!Files.exists(cacheFile)) {
+            return null;
+        }
+
+        Properties storedResults = new Properties();
+        try (Reader reader = Files.newBufferedReader(cacheFile)) {
+            storedResults.load(reader);
+        }
+
+        if (!instanceHash.equals(storedResults.getProperty("instanceHash")) ||
+                !this.getSearchSpace().equals(storedResults.getProperty("searchSpace"))) {
+            logger.info("Ignoring tuning results in " + cacheFile + ": the instance or the search space changed.");
+            return null;
+        }
+
+        BaseAntSystemConfiguration configuration = new BaseAntSystemConfiguration();
+        configuration.setNumberOfAnts(Integer.parseInt(storedResults.getProperty("numberOfAnts")));
+        configuration.setNumberOfIterations(Integer.parseInt(storedResults.getProperty("numberOfIterations")));
+        configuration.setEvaporationRatio(Double.parseDouble(storedResults.getProperty("evaporationRatio")));
+        configuration.setInitialPheromoneValue(Double.parseDouble(storedResults.getProperty("initialPheromoneValue")));
+        configuration.setHeuristicImportance(Double.parseDouble(storedResults.getProperty("heuristicImportance")));
+        configuration.setPheromoneImportance(Double.parseDouble(storedResults.getProperty("pheromoneImportance")));
+        configuration.setPheromoneDepositFactor(Double.parseDouble(storedResults.getProperty("pheromoneDepositFactor")));
+        configuration.setBestChoiceProbability(Double.parseDouble(storedResults.getProperty("bestChoiceProbability")));
+        configuration.setExchangeMoveBudget(Integer.parseInt(storedResults.getProperty("exchangeMoveBudget")));
+        configuration.setExchangeTimeBudget(Duration.parse(storedResults.getProperty("exchangeTimeBudget")));
+        return configuration;
+    }
+
+    private void storeConfiguration(BaseAntSystemConfiguration configuration, Path cacheFile, String instanceHash)
+            throws IOException {
+        Properties results = new Properties();
+        results.setProperty("instanceHash", instanceHash);
+        results.setProperty("searchSpace", this.getSearchSpace());
+        results.setProperty("numberOfAnts", String.valueOf(configuration.getNumberOfAnts()));
+        results.setProperty("numberOfIterations", String.valueOf(configuration.getNumberOfIterations()));
+        results.setProperty("evaporationRatio", String.valueOf(configuration.getEvaporationRatio()));
+        results.setProperty("initialPheromoneValue", String.valueOf(configuration.getInitialPheromoneValue()));
+        results.setProperty("heuristicImportance", String.valueOf(configuration.getHeuristicImportance()));
+        results.setProperty("pheromoneImportance", String.valueOf(configuration.getPheromoneImportance()));
+        results.setProperty("pheromoneDepositFactor", String.valueOf(configuration.getPheromoneDepositFactor()));
+        results.setProperty("bestChoiceProbability", String.valueOf(configuration.getBestChoiceProbability()));
+        results.setProperty("exchangeMoveBudget", String.valueOf(configuration.getExchangeMoveBudget()));
+        results.setProperty("exchangeTimeBudget", configuration.getExchangeTimeBudget().toString());
+
+        Path temporaryFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile)) {
+            results.store(writer, "Tuned configuration");
+        }
+        Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Tuning results written to " + cacheFile);
+    }
+
+    private static String toHexString(byte[] bytes) {
+        StringBuilder hexString = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            hexString.append(String.format("%02x", value));
+        }
+        return hexString.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "SuccessiveHalvingTuner{" +
+                getSearchSpace() +
+                ", roundResults=" + roundResults +
+                '}';
+    }
+}
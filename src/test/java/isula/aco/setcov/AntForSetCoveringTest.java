@@ -1,5 +1,6 @@
 package isula.aco.setcov;
 
+import isula.aco.Ant;
 import isula.aco.algorithms.antsystem.RandomNodeSelection;
 import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
 import org.junit.jupiter.api.Assertions;
@@ -10,6 +11,7 @@ import setcov.isula.sample.FileUtils;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static setcov.isula.sample.AcoSetCoveringWithIsula.PREPROCESING_TIME_LIMIT;
@@ -55,6 +57,15 @@ public class AntForSetCoveringTest {
 
         assertEquals(expectedHeuristicValueForC3, ant.getHeuristicValue(3, 0,
                 smallEnvironment), 0.001);
+
+        ant.visitNode(0, smallEnvironment);
+        assertEquals(1, ant.getCoverageGain(3));
+        assertEquals(1.0 / 4.0, ant.getHeuristicValue(3, 0, smallEnvironment), 0.001);
+        assertEquals(0, ant.getCoverageGain(0));
+
+        ant.clear();
+        assertEquals(2, ant.getCoverageGain(3));
+        assertEquals(0, ant.getCoverageGain(1));
     }
 
     @Test
@@ -111,6 +122,27 @@ public class AntForSetCoveringTest {
 
     }
 
+    @Test
+    public void testUncoveredSamples() {
+        AntForSetCovering ant = new AntForSetCovering(smallEnvironment);
+        assertEquals(4, ant.getNumberOfUncoveredSamples());
+
+        ant.visitNode(0, smallEnvironment);
+        assertEquals(2, ant.getNumberOfUncoveredSamples());
+        assertEquals(Set.of(0, 2), ant.getUncoveredSamples());
+        assertFalse(ant.isSolutionReady(smallEnvironment));
+
+        ant.visitNode(3, smallEnvironment);
+        ant.visitNode(1, smallEnvironment);
+        assertEquals(0, ant.getNumberOfUncoveredSamples());
+        assertTrue(ant.isSolutionReady(smallEnvironment));
+        assertEquals(0, ant.getNeighbourhood(smallEnvironment).size());
+
+        ant.clear();
+        assertEquals(3, ant.getNumberOfUncoveredSamples());
+        assertEquals(Set.of(1, 2, 3), ant.getUncoveredSamples());
+    }
+
     @Test
     public void testGetSolutionCost() {
         AntForSetCovering ant = new AntForSetCovering(environment);
@@ -172,6 +204,87 @@ public class AntForSetCoveringTest {
     }
 
 
+    @Test
+    public void testCandidateLists() {
+        SetCoveringEnvironment listEnvironment = new SetCoveringEnvironment(environment);
+        listEnvironment.setCandidateListSize(5);
+        assertEquals(5, listEnvironment.getCandidateListSize());
+
+        AntForSetCovering ant = new AntForSetCovering(listEnvironment);
+        ant.clear();
+        IncidenceMatrix incidenceMatrix = listEnvironment.getIncidenceMatrix();
+        for (int sampleIndex = 0; sampleIndex < listEnvironment.getNumberOfSamples(); sampleIndex += 1) {
+            Set<Integer> neighbourhood = ant.getNeighbourhoodForSample(listEnvironment, sampleIndex);
+            Set<Integer> allCandidates = new HashSet<>(listEnvironment.getCoveringCandidates(sampleIndex));
+            allCandidates.removeAll(listEnvironment.getDominatedCandidates());
+
+            assertEquals(Math.min(5, allCandidates.size()), neighbourhood.size());
+            int smallestInList = neighbourhood.stream().mapToInt(incidenceMatrix::getCoverageSize).min().orElse(0);
+            allCandidates.removeAll(neighbourhood);
+            assertTrue(allCandidates.stream().allMatch(candidateIndex ->
+                    incidenceMatrix.getCoverageSize(candidateIndex) <= smallestInList));
+        }
+
+        assertEquals(CandidateLists.DEFAULT_LIST_SIZE, environment.getCandidateListSize());
+    }
+
+    @Test
+    public void testSetCoveringNodeSelection() {
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        StartPheromoneMatrix<Integer, SetCoveringEnvironment> startPheromoneAction = new StartPheromoneMatrix<>();
+        startPheromoneAction.setEnvironment(colonyEnvironment);
+        startPheromoneAction.applyDaemonAction(algorithmConfiguration);
+
+        AntForSetCovering ant = new AntForSetCovering(colonyEnvironment);
+        SetCoveringNodeSelection nodeSelectionPolicy = new SetCoveringNodeSelection();
+        nodeSelectionPolicy.setAnt(ant);
+
+        ant.clear();
+        while (!ant.isSolutionReady(colonyEnvironment)) {
+            int uncoveredSamples = ant.getNumberOfUncoveredSamples();
+            assertTrue(nodeSelectionPolicy.applyPolicy(colonyEnvironment, algorithmConfiguration));
+            assertTrue(ant.getNumberOfUncoveredSamples() < uncoveredSamples);
+        }
+
+        assertTrue(FileUtils.isValidSolution(ant.getSolution(), colonyEnvironment.getIncidenceMatrix()));
+        assertFalse(nodeSelectionPolicy.applyPolicy(colonyEnvironment, algorithmConfiguration));
+        assertEquals(new HashSet<>(ant.getSolution()).size(), ant.getSolution().size());
+    }
+
+    @Test
+    public void testSelectedCandidates() {
+        AntForSetCovering ant = new AntForSetCovering(smallEnvironment);
+        ant.clear();
+        ant.visitNode(3, smallEnvironment);
+        ant.visitNode(2, smallEnvironment);
+
+        SetCoveringSolution selectedCandidates = ant.getSelectedCandidates();
+        assertEquals(3, selectedCandidates.size());
+        assertTrue(selectedCandidates.contains(1));
+        assertTrue(selectedCandidates.contains(2));
+        assertFalse(selectedCandidates.contains(0));
+
+        assertTrue(selectedCandidates.remove(3));
+        assertFalse(selectedCandidates.remove(3));
+        ant.updateSolution();
+        assertEquals(Set.of(1, 2), new HashSet<>(ant.getSolution()));
+
+        SetCoveringSolution orderedSolution = SetCoveringSolution.fromList(Arrays.asList(3, 1, 2), 4);
+        assertTrue(orderedSolution.replace(1, 0));
+        assertFalse(orderedSolution.replace(1, 0));
+        assertFalse(orderedSolution.replace(3, 2));
+        assertEquals(List.of(3, 0, 2), orderedSolution.toList());
+        assertFalse(orderedSolution.contains(1));
+
+        SetCoveringSolution solutionCopy = SetCoveringSolution.fromList(Arrays.asList(0, null, 3, 0), 4);
+        assertArrayEquals(new int[]{0, 3}, solutionCopy.toArray());
+        solutionCopy.copyFrom(selectedCandidates);
+        assertEquals(ant.getSolution(), solutionCopy.toList());
+
+        ant.clear();
+        assertEquals(List.of(1), selectedCandidates.toList());
+    }
+
     @Test
     public void testClear() {
 
@@ -194,4 +307,112 @@ public class AntForSetCoveringTest {
 
         nodeSelectionPolicy.applyPolicy(smallEnvironment, algorithmConfiguration);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPseudoRandomProportionalSelection() {
+        double[] prefixSums = {0.0, 1.0, 1.0, 3.0};
+        assertEquals(1, SetCoveringNodeSelection.getRoulettePosition(prefixSums, prefixSums.length, 0.0));
+        assertEquals(1, SetCoveringNodeSelection.getRoulettePosition(prefixSums, prefixSums.length, 0.99));
+        assertEquals(3, SetCoveringNodeSelection.getRoulettePosition(prefixSums, prefixSums.length, 1.0));
+        assertEquals(3, SetCoveringNodeSelection.getRoulettePosition(prefixSums, prefixSums.length, 2.5));
+
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        SplittableRandom trailRandom = new SplittableRandom(7);
+        for (int candidateIndex = 0; candidateIndex < colonyEnvironment.getNumberOfCandidates(); candidateIndex += 1) {
+            colonyEnvironment.setPheromoneTrailValue(candidateIndex, 0.5 + trailRandom.nextDouble());
+        }
+
+        BaseAntSystemConfiguration greedyConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        greedyConfiguration.setBestChoiceProbability(1.0);
+        AntForSetCovering ant = new AntForSetCovering(colonyEnvironment);
+        ant.clear();
+        while (!ant.isSolutionReady(colonyEnvironment)) {
+            int neighbourhoodSize = ant.fillNeighbourhood(colonyEnvironment);
+            int expectedPosition = getBestWeightPosition(ant, neighbourhoodSize, colonyEnvironment,
+                    greedyConfiguration);
+
+            int selectedPosition = SetCoveringNodeSelection.selectPosition(ant, neighbourhoodSize, colonyEnvironment,
+                    greedyConfiguration);
+            assertEquals(expectedPosition, selectedPosition);
+            ant.visitNode(ant.getNeighbourhoodBuffer()[selectedPosition], colonyEnvironment);
+        }
+
+        BaseAntSystemConfiguration rouletteConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        rouletteConfiguration.setBestChoiceProbability(0.0);
+        rouletteConfiguration.setHeuristicImportance(1.0);
+        int nonMaximalSelections = 0;
+        for (int repetition = 0; repetition < 5; repetition += 1) {
+            ant.clear();
+            while (!ant.isSolutionReady(colonyEnvironment)) {
+                int neighbourhoodSize = ant.fillNeighbourhood(colonyEnvironment);
+                int bestPosition = getBestWeightPosition(ant, neighbourhoodSize, colonyEnvironment,
+                        rouletteConfiguration);
+
+                int selectedPosition = SetCoveringNodeSelection.selectPosition(ant, neighbourhoodSize,
+                        colonyEnvironment, rouletteConfiguration);
+                if (getSelectionWeight(ant, selectedPosition, colonyEnvironment, rouletteConfiguration) <
+                        getSelectionWeight(ant, bestPosition, colonyEnvironment, rouletteConfiguration)) {
+                    nonMaximalSelections += 1;
+                }
+                ant.visitNode(ant.getNeighbourhoodBuffer()[selectedPosition], colonyEnvironment);
+            }
+        }
+        assertTrue(nonMaximalSelections > 0);
+    }
+
+    /**
+     * First position of the ant's neighbourhood with the largest pheromone^alpha * heuristic^beta.
+     */
+    private static int getBestWeightPosition(AntForSetCovering ant, int neighbourhoodSize,
+                                             SetCoveringEnvironment environment,
+                                             BaseAntSystemConfiguration configuration) {
+        int bestPosition = 0;
+        for (int position = 1; position < neighbourhoodSize; position += 1) {
+            if (getSelectionWeight(ant, position, environment, configuration) >
+                    getSelectionWeight(ant, bestPosition, environment, configuration)) {
+                bestPosition = position;
+            }
+        }
+        return bestPosition;
+    }
+
+    private static double getSelectionWeight(AntForSetCovering ant, int position, SetCoveringEnvironment environment,
+                                             BaseAntSystemConfiguration configuration) {
+        int candidateIndex = ant.getNeighbourhoodBuffer()[position];
+        double heuristicValue = ant.getCoverageGain(candidateIndex) / (double) environment.getNumberOfSamples();
+        return Math.pow(environment.getPheromoneTrailValue(candidateIndex), configuration.getPheromoneImportance()) *
+                Math.pow(heuristicValue, configuration.getHeuristicImportance());
+    }
+
+    @Test
+    public void testConcurrentAntColony() {
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        colonyEnvironment.populatePheromoneMatrix(algorithmConfiguration.getInitialPheromoneValue());
+
+        ForkJoinPool constructionExecutor = new ForkJoinPool(4);
+        ConcurrentAntColony<Integer, SetCoveringEnvironment> colony = new ConcurrentAntColony<>(8,
+                constructionExecutor) {
+            @Override
+            protected Ant<Integer, SetCoveringEnvironment> createAnt(SetCoveringEnvironment environment) {
+                return new AntForSetCovering(environment);
+            }
+        };
+        colony.buildColony(colonyEnvironment);
+        colony.addAntPolicies(new SetCoveringNodeSelection(), new ApplyLocalSearch());
+
+        try {
+            for (int iteration = 0; iteration < 3; iteration += 1) {
+                colony.clearAntSolutions();
+                colony.buildSolutions(colonyEnvironment, algorithmConfiguration);
+
+                for (Ant<Integer, SetCoveringEnvironment> ant : colony.getHive()) {
+                    assertTrue(ant.isSolutionReady(colonyEnvironment));
+                    assertTrue(FileUtils.isValidSolution(((AntForSetCovering) ant).getSelectedCandidates(),
+                            colonyEnvironment.getIncidenceMatrix()));
+                }
+            }
+        } finally {
+            constructionExecutor.shutdown();
+        }
+    }
+}
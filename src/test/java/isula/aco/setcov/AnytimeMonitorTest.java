@@ -0,0 +1,66 @@
+package isula.aco.setcov;
+
+import isula.aco.AntColony;
+import isula.aco.DaemonAction;
+import org.junit.jupiter.api.Test;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnytimeMonitorTest {
+
+    private final SetCoveringEnvironment environment;
+    private final BaseAntSystemConfiguration algorithmConfiguration;
+    private final ColonyFixture colonyFixture;
+
+    public AnytimeMonitorTest() throws IOException {
+        this.environment = new SetCoveringEnvironment(FileUtils.initialisePreProcessorFromFile(
+                "problem_data/AC_10_cover.txt"));
+        this.algorithmConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        this.colonyFixture = new ColonyFixture(environment, algorithmConfiguration);
+    }
+
+    @Test
+    public void testAnytimeMonitor() {
+        SetCoveringEnvironment colonyEnvironment = colonyFixture.createColonyEnvironment();
+        AntColony<Integer, SetCoveringEnvironment> colony = colonyFixture.buildColonyWithSolutions(colonyEnvironment);
+
+        List<Integer> improvedSizes = new ArrayList<>();
+        AnytimeProgress progress = new AnytimeProgress(Instant.now().plusSeconds(3600), 2,
+                solution -> improvedSizes.add(solution.size()));
+        DaemonAction<Integer, SetCoveringEnvironment> monitor = progress.createMonitors().get();
+        monitor.setEnvironment(colonyEnvironment);
+        monitor.setAntColony(colony);
+
+        assertThrows(SolverStoppedException.class, () -> {
+            while (true) {
+                colony.clearAntSolutions();
+                colony.buildSolutions(colonyEnvironment, algorithmConfiguration);
+                monitor.applyDaemonAction(algorithmConfiguration);
+            }
+        });
+
+        assertTrue(progress.isStopped());
+        assertFalse(improvedSizes.isEmpty());
+        for (int position = 1; position < improvedSizes.size(); position += 1) {
+            assertTrue(improvedSizes.get(position) < improvedSizes.get(position - 1));
+        }
+        assertEquals(progress.getBestSolution().size(), (int) improvedSizes.get(improvedSizes.size() - 1));
+        assertTrue(FileUtils.isValidSolution(progress.getBestSolution(), colonyEnvironment.getIncidenceMatrix()));
+
+        AnytimeProgress expiredProgress = new AnytimeProgress(Instant.now(), Integer.MAX_VALUE, solution -> {
+        });
+        DaemonAction<Integer, SetCoveringEnvironment> expiredMonitor = expiredProgress.createMonitors().get();
+        expiredMonitor.setEnvironment(colonyEnvironment);
+        expiredMonitor.setAntColony(colony);
+        expiredMonitor.applyDaemonAction(algorithmConfiguration);
+        assertThrows(SolverStoppedException.class, () -> expiredMonitor.applyDaemonAction(algorithmConfiguration));
+        assertNotNull(expiredProgress.getBestSolution());
+    }
+}
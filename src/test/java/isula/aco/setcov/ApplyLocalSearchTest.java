@@ -1,10 +1,18 @@
 package isula.aco.setcov;
 
 import org.junit.jupiter.api.Test;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+import setcov.isula.sample.FileUtils;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static setcov.isula.sample.AcoSetCoveringWithIsula.PREPROCESING_TIME_LIMIT;
 import static setcov.isula.sample.FileUtils.isValidSolution;
@@ -42,4 +50,131 @@ class ApplyLocalSearchTest {
                 preProcessor.getNumberOfSamples()));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRemovalOrders() throws IOException {
+        SetCoveringPreProcessor preProcessor = FileUtils.initialisePreProcessorFromFile("problem_data/AC_10_cover.txt");
+        SetCoveringEnvironment environment = new SetCoveringEnvironment(preProcessor);
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+
+        for (ApplyLocalSearch.RemovalOrder removalOrder : ApplyLocalSearch.RemovalOrder.values()) {
+            AntForSetCovering ant = new AntForSetCovering(environment);
+            ant.clear();
+            IntStream.range(0, environment.getNumberOfCandidates())
+                    .filter(candidateIndex -> candidateIndex % 7 == 0)
+                    .forEach(candidateIndex -> ant.visitNode(candidateIndex, environment));
+            while (!ant.isSolutionReady(environment)) {
+                ant.visitNode(ant.getNeighbourhood(environment).get(0), environment);
+            }
+            double originalCost = ant.getSolutionCost(environment);
+
+            ApplyLocalSearch localSearchPolicy = new ApplyLocalSearch(removalOrder);
+            localSearchPolicy.setAnt(ant);
+            localSearchPolicy.applyPolicy(environment, null);
+
+            List<Integer> improvedSolution = ant.getSolution();
+            assertTrue(isValidSolution(improvedSolution, incidenceMatrix));
+            assertTrue(ant.getSolutionCost(environment) < originalCost);
+
+            int[] coverageCounts = new int[environment.getNumberOfSamples()];
+            improvedSolution.forEach(candidateIndex -> Arrays.stream(incidenceMatrix.getSamples(candidateIndex))
+                    .forEach(sampleIndex -> coverageCounts[sampleIndex] += 1));
+            for (Integer candidateIndex : improvedSolution) {
+                assertTrue(Arrays.stream(incidenceMatrix.getSamples(candidateIndex))
+                        .anyMatch(sampleIndex -> coverageCounts[sampleIndex] == 1));
+            }
+        }
+    }
+
+    @Test
+    public void testMostRedundantFirst() {
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(2);
+        preProcessor.setNumberOfCandidates(3);
+        preProcessor.addCandidatesForSample(0, new int[]{0, 1});
+        preProcessor.addCandidatesForSample(1, new int[]{0, 2});
+        SetCoveringEnvironment smallEnvironment = new SetCoveringEnvironment(preProcessor, false);
+
+        AntForSetCovering ant = new AntForSetCovering(smallEnvironment);
+        ant.clear();
+        ant.visitNode(0, smallEnvironment);
+        ant.visitNode(1, smallEnvironment);
+        ant.visitNode(2, smallEnvironment);
+
+        ApplyLocalSearch localSearchPolicy = new ApplyLocalSearch(ApplyLocalSearch.RemovalOrder.SOLUTION_ORDER);
+        localSearchPolicy.setAnt(ant);
+        localSearchPolicy.applyPolicy(smallEnvironment, null);
+        assertEquals(Set.of(1, 2), new HashSet<>(ant.getSolution()));
+
+        ant.clear();
+        ant.visitNode(0, smallEnvironment);
+        ant.visitNode(1, smallEnvironment);
+        ant.visitNode(2, smallEnvironment);
+
+        localSearchPolicy = new ApplyLocalSearch(ApplyLocalSearch.RemovalOrder.MOST_REDUNDANT_FIRST);
+        localSearchPolicy.setAnt(ant);
+        localSearchPolicy.applyPolicy(smallEnvironment, null);
+        assertEquals(List.of(0), ant.getSolution());
+    }
+
+    @Test
+    public void testApplyExchangeSearch() {
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(4);
+        preProcessor.setNumberOfCandidates(3);
+        preProcessor.addCandidatesForSample(0, new int[]{0, 2});
+        preProcessor.addCandidatesForSample(1, new int[]{0, 2});
+        preProcessor.addCandidatesForSample(2, new int[]{1, 2});
+        preProcessor.addCandidatesForSample(3, new int[]{1, 2});
+
+        SetCoveringEnvironment smallEnvironment = new SetCoveringEnvironment(preProcessor, false);
+        AntForSetCovering ant = new AntForSetCovering(smallEnvironment);
+        ant.clear();
+        ant.visitNode(0, smallEnvironment);
+        ant.visitNode(1, smallEnvironment);
+
+        ApplyLocalSearch localSearchPolicy = new ApplyLocalSearch();
+        localSearchPolicy.setAnt(ant);
+        localSearchPolicy.applyPolicy(smallEnvironment, null);
+        assertEquals(2, ant.getSolution().size());
+
+        ApplyExchangeSearch exchangeSearchPolicy = new ApplyExchangeSearch();
+        exchangeSearchPolicy.setAnt(ant);
+        BaseAntSystemConfiguration noMovesConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        noMovesConfiguration.setExchangeMoveBudget(0);
+        exchangeSearchPolicy.applyPolicy(smallEnvironment, noMovesConfiguration);
+        assertEquals(2, ant.getSolution().size());
+
+        exchangeSearchPolicy.applyPolicy(smallEnvironment, AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration());
+
+        assertEquals(List.of(2), ant.getSolution());
+        assertTrue(isValidSolution(ant.getSolution(), preProcessor.getIncidenceMatrix()));
+    }
+
+    @Test
+    public void testFailedExchangeKeepsSolutionOrder() {
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(4);
+        preProcessor.setNumberOfCandidates(4);
+        preProcessor.addCandidatesForSample(0, new int[]{0, 1});
+        preProcessor.addCandidatesForSample(1, new int[]{1, 2});
+        preProcessor.addCandidatesForSample(2, new int[]{2});
+        preProcessor.addCandidatesForSample(3, new int[]{2, 3});
+
+        SetCoveringEnvironment smallEnvironment = new SetCoveringEnvironment(preProcessor, false);
+        AntForSetCovering ant = new AntForSetCovering(smallEnvironment);
+        ant.clear();
+        ant.visitNode(0, smallEnvironment);
+        ant.visitNode(3, smallEnvironment);
+        assertEquals(List.of(2, 0, 3), ant.getSelectedCandidates().toList());
+
+        ApplyExchangeSearch exchangeSearchPolicy = new ApplyExchangeSearch();
+        exchangeSearchPolicy.setAnt(ant);
+        exchangeSearchPolicy.applyPolicy(smallEnvironment, null);
+
+        assertEquals(List.of(2, 0), ant.getSelectedCandidates().toList());
+        assertTrue(isValidSolution(ant.getSolution(), preProcessor.getIncidenceMatrix()));
+    }
+}
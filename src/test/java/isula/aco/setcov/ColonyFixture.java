@@ -0,0 +1,46 @@
+package isula.aco.setcov;
+
+import isula.aco.Ant;
+import isula.aco.AntColony;
+import isula.aco.ConfigurationProvider;
+
+/**
+ * Colonies over a shared instance for the daemon action tests: each one gets an environment with a pheromone matrix
+ * of its own, and three ants that have already built their solutions.
+ */
+class ColonyFixture {
+
+    private final SetCoveringEnvironment environment;
+    private final ConfigurationProvider algorithmConfiguration;
+
+    ColonyFixture(SetCoveringEnvironment environment, ConfigurationProvider algorithmConfiguration) {
+        this.environment = environment;
+        this.algorithmConfiguration = algorithmConfiguration;
+    }
+
+    /**
+     * An environment with a pheromone matrix of its own, every trail at the initial pheromone value.
+     */
+    SetCoveringEnvironment createColonyEnvironment() {
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(this.environment);
+        colonyEnvironment.populatePheromoneMatrix(this.algorithmConfiguration.getInitialPheromoneValue());
+        return colonyEnvironment;
+    }
+
+    /**
+     * A colony of three ants whose solutions are already built, for daemon actions to work on.
+     */
+    AntColony<Integer, SetCoveringEnvironment> buildColonyWithSolutions(SetCoveringEnvironment colonyEnvironment) {
+        AntColony<Integer, SetCoveringEnvironment> colony = new AntColony<>(3) {
+            @Override
+            protected Ant<Integer, SetCoveringEnvironment> createAnt(SetCoveringEnvironment environment) {
+                return new AntForSetCovering(environment);
+            }
+        };
+        colony.buildColony(colonyEnvironment);
+        colony.addAntPolicies(new SetCoveringNodeSelection());
+        colony.clearAntSolutions();
+        colony.buildSolutions(colonyEnvironment, this.algorithmConfiguration);
+        return colony;
+    }
+}
@@ -0,0 +1,64 @@
+package isula.aco.setcov;
+
+import isula.aco.AntColony;
+import isula.aco.DaemonAction;
+import isula.aco.exception.ConfigurationException;
+import org.junit.jupiter.api.Test;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IslandMigrationTest {
+
+    private final SetCoveringEnvironment environment;
+    private final BaseAntSystemConfiguration algorithmConfiguration;
+    private final ColonyFixture colonyFixture;
+
+    public IslandMigrationTest() throws IOException {
+        this.environment = new SetCoveringEnvironment(FileUtils.initialisePreProcessorFromFile(
+                "problem_data/AC_10_cover.txt"));
+        this.algorithmConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        this.colonyFixture = new ColonyFixture(environment, algorithmConfiguration);
+    }
+
+    @Test
+    public void testIslandMigration() {
+        IslandModel islandModel = new IslandModel(2, 1, IslandModel.Topology.RING);
+        Supplier<DaemonAction<Integer, SetCoveringEnvironment>> migrationActions =
+                islandModel.createMigrationActions();
+
+        List<IslandMigration> islands = new ArrayList<>();
+        for (int islandId = 0; islandId < islandModel.getNumberOfIslands(); islandId += 1) {
+            SetCoveringEnvironment islandEnvironment = colonyFixture.createColonyEnvironment();
+            AntColony<Integer, SetCoveringEnvironment> colony =
+                    colonyFixture.buildColonyWithSolutions(islandEnvironment);
+
+            IslandMigration migration = (IslandMigration) migrationActions.get();
+            migration.setEnvironment(islandEnvironment);
+            migration.setAntColony(colony);
+            assertEquals(islandId, migration.getIslandId());
+            islands.add(migration);
+        }
+        assertThrows(ConfigurationException.class, migrationActions::get);
+
+        islands.get(0).applyDaemonAction(algorithmConfiguration);
+        islands.get(1).applyDaemonAction(algorithmConfiguration);
+        int firstIslandSize = islands.get(0).getIslandBestSolution().size();
+        assertTrue(islands.get(1).getIslandBestSolution().size() <= firstIslandSize);
+
+        islands.get(0).applyDaemonAction(algorithmConfiguration);
+        assertEquals(islands.get(1).getIslandBestSolution().size(), islands.get(0).getIslandBestSolution().size());
+        assertTrue(FileUtils.isValidSolution(islands.get(0).getIslandBestSolution(),
+                environment.getIncidenceMatrix()));
+
+        double[] trailsBeforeRepublishing = islands.get(1).getEnvironment().getPheromoneTrails().clone();
+        islands.get(1).applyDaemonAction(algorithmConfiguration);
+        assertArrayEquals(trailsBeforeRepublishing, islands.get(1).getEnvironment().getPheromoneTrails());
+    }
+}
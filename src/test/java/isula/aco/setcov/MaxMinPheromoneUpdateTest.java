@@ -0,0 +1,116 @@
+package isula.aco.setcov;
+
+import isula.aco.AntColony;
+import isula.aco.DaemonAction;
+import org.junit.jupiter.api.Test;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaxMinPheromoneUpdateTest {
+
+    private final SetCoveringEnvironment environment;
+    private final BaseAntSystemConfiguration algorithmConfiguration;
+    private final ColonyFixture colonyFixture;
+
+    public MaxMinPheromoneUpdateTest() throws IOException {
+        this.environment = new SetCoveringEnvironment(FileUtils.initialisePreProcessorFromFile(
+                "problem_data/AC_10_cover.txt"));
+        this.algorithmConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        this.colonyFixture = new ColonyFixture(environment, algorithmConfiguration);
+    }
+
+    @Test
+    public void testMaxMinPheromoneUpdate() {
+        assertEquals(0.0, MaxMinPheromoneUpdate.getMinimumTrail(2.0, 1.0, 10, 50), 0.0001);
+        assertTrue(MaxMinPheromoneUpdate.getMinimumTrail(2.0, 0.05, 10, 50) < 2.0);
+
+        SetCoveringEnvironment colonyEnvironment = colonyFixture.createColonyEnvironment();
+        AntColony<Integer, SetCoveringEnvironment> colony = colonyFixture.buildColonyWithSolutions(colonyEnvironment);
+
+        MaxMinPheromoneUpdate updateAction = new MaxMinPheromoneUpdate();
+        updateAction.setEnvironment(colonyEnvironment);
+        updateAction.setAntColony(colony);
+        updateAction.applyDaemonAction(algorithmConfiguration);
+
+        SetCoveringSolution bestSolution = ((AntForSetCovering) colony.getBestPerformingAnt(colonyEnvironment))
+                .getSelectedCandidates();
+        double maximumTrail = algorithmConfiguration.getPheromoneDepositFactor() /
+                ((1 - algorithmConfiguration.getEvaporationRatio()) * bestSolution.size());
+        assertEquals(maximumTrail, updateAction.getMaximumTrail(), 0.0001);
+        assertTrue(updateAction.getMinimumTrail() < maximumTrail);
+
+        for (int candidateIndex = 0; candidateIndex < colonyEnvironment.getNumberOfCandidates(); candidateIndex += 1) {
+            double trail = colonyEnvironment.getPheromoneTrailValue(candidateIndex);
+            assertTrue(trail >= updateAction.getMinimumTrail() && trail <= updateAction.getMaximumTrail());
+            if (bestSolution.contains(candidateIndex)) {
+                assertEquals(maximumTrail, trail, 0.0001);
+            }
+        }
+    }
+
+    @Test
+    public void testMaxMinTrailLimits() {
+        SetCoveringEnvironment colonyEnvironment = colonyFixture.createColonyEnvironment();
+        assertFalse(colonyEnvironment.hasTrailLimits());
+        AntColony<Integer, SetCoveringEnvironment> colony = colonyFixture.buildColonyWithSolutions(colonyEnvironment);
+
+        MaxMinPheromoneUpdate updateAction = new MaxMinPheromoneUpdate();
+        updateAction.setEnvironment(colonyEnvironment);
+        updateAction.setAntColony(colony);
+        updateAction.applyDaemonAction(algorithmConfiguration);
+        assertTrue(colonyEnvironment.hasTrailLimits());
+        assertEquals(updateAction.getMinimumTrail(), colonyEnvironment.getMinimumTrail(), 0.0);
+        assertEquals(updateAction.getMaximumTrail(), colonyEnvironment.getMaximumTrail(), 0.0);
+
+        PheromoneRestart restartAction = new PheromoneRestart(1, Double.MAX_VALUE, true);
+        restartAction.setEnvironment(colonyEnvironment);
+        restartAction.setAntColony(colony);
+        restartAction.applyDaemonAction(algorithmConfiguration);
+        restartAction.applyDaemonAction(algorithmConfiguration);
+        assertEquals(1, restartAction.getRestarts());
+        for (double trail : colonyEnvironment.getPheromoneTrails()) {
+            assertEquals(updateAction.getMaximumTrail(), trail, 0.0001);
+        }
+
+        IslandModel islandModel = new IslandModel(2, 1, IslandModel.Topology.RING);
+        Supplier<DaemonAction<Integer, SetCoveringEnvironment>> migrationActions =
+                islandModel.createMigrationActions();
+        DaemonAction<Integer, SetCoveringEnvironment> sourceMigration = migrationActions.get();
+        sourceMigration.setEnvironment(new SetCoveringEnvironment(environment));
+        sourceMigration.setAntColony(colony);
+        DaemonAction<Integer, SetCoveringEnvironment> targetMigration = migrationActions.get();
+        targetMigration.setEnvironment(colonyEnvironment);
+        targetMigration.setAntColony(colony);
+
+        colonyEnvironment.evaporateAndClampPheromoneTrails(algorithmConfiguration.getEvaporationRatio(),
+                updateAction.getMinimumTrail(), updateAction.getMaximumTrail());
+        sourceMigration.applyDaemonAction(algorithmConfiguration);
+        targetMigration.applyDaemonAction(algorithmConfiguration);
+
+        SetCoveringSolution bestSolution = ((AntForSetCovering) colony.getBestPerformingAnt(colonyEnvironment))
+                .getSelectedCandidates();
+        for (int candidateIndex = 0; candidateIndex < colonyEnvironment.getNumberOfCandidates(); candidateIndex += 1) {
+            double trail = colonyEnvironment.getPheromoneTrailValue(candidateIndex);
+            assertTrue(trail >= updateAction.getMinimumTrail() && trail <= updateAction.getMaximumTrail());
+            if (bestSolution.contains(candidateIndex)) {
+                assertEquals(updateAction.getMaximumTrail(), trail, 0.0001);
+            }
+        }
+
+        List<Integer> smallerSolution = bestSolution.toList().subList(1, bestSolution.size());
+        colonyEnvironment.receiveSolution(SetCoveringSolution.fromList(smallerSolution,
+                colonyEnvironment.getNumberOfCandidates()));
+        updateAction.applyDaemonAction(algorithmConfiguration);
+        assertNull(colonyEnvironment.takeReceivedSolution());
+        assertEquals(algorithmConfiguration.getPheromoneDepositFactor() /
+                        ((1 - algorithmConfiguration.getEvaporationRatio()) * smallerSolution.size()),
+                updateAction.getMaximumTrail(), 0.0001);
+    }
+}
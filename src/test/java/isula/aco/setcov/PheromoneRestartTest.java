@@ -0,0 +1,54 @@
+package isula.aco.setcov;
+
+import isula.aco.AntColony;
+import org.junit.jupiter.api.Test;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
+import setcov.isula.sample.FileUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PheromoneRestartTest {
+
+    private final SetCoveringEnvironment environment;
+    private final BaseAntSystemConfiguration algorithmConfiguration;
+    private final ColonyFixture colonyFixture;
+
+    public PheromoneRestartTest() throws IOException {
+        this.environment = new SetCoveringEnvironment(FileUtils.initialisePreProcessorFromFile(
+                "problem_data/AC_10_cover.txt"));
+        this.algorithmConfiguration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+        this.colonyFixture = new ColonyFixture(environment, algorithmConfiguration);
+    }
+
+    @Test
+    public void testPheromoneRestart() {
+        assertEquals(4.0 / 2, PheromoneRestart.getBranchingFactor(new double[]{1.0, 1.0, 1.0, 1.0}, 2), 0.0001);
+        assertEquals(2.0 / 2, PheromoneRestart.getBranchingFactor(new double[]{0.0, 5.0, 0.1, 5.0}, 2), 0.0001);
+
+        SetCoveringEnvironment colonyEnvironment = colonyFixture.createColonyEnvironment();
+        AntColony<Integer, SetCoveringEnvironment> colony = colonyFixture.buildColonyWithSolutions(colonyEnvironment);
+
+        PheromoneRestart restartAction = new PheromoneRestart(1, Double.MAX_VALUE, true);
+        restartAction.setEnvironment(colonyEnvironment);
+        restartAction.setAntColony(colony);
+        restartAction.applyDaemonAction(algorithmConfiguration);
+        assertEquals(0, restartAction.getRestarts());
+
+        colonyEnvironment.evaporatePheromoneTrails(0.5);
+        restartAction.applyDaemonAction(algorithmConfiguration);
+        assertEquals(1, restartAction.getRestarts());
+
+        SetCoveringSolution bestSolution = ((AntForSetCovering) colony.getBestPerformingAnt(colonyEnvironment))
+                .getSelectedCandidates();
+        double initialPheromoneValue = algorithmConfiguration.getInitialPheromoneValue();
+        double bestSolutionTrail = initialPheromoneValue +
+                algorithmConfiguration.getPheromoneDepositFactor() / bestSolution.size();
+        for (int candidateIndex = 0; candidateIndex < colonyEnvironment.getNumberOfCandidates(); candidateIndex += 1) {
+            double expectedTrail = bestSolution.contains(candidateIndex) ? bestSolutionTrail : initialPheromoneValue;
+            assertEquals(expectedTrail, colonyEnvironment.getPheromoneTrailValue(candidateIndex), 0.0001);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package isula.aco.setcov;
 
+import isula.aco.algorithms.antsystem.StartPheromoneMatrix;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import setcov.isula.sample.AcoSetCoveringWithIsula;
+import setcov.isula.sample.BaseAntSystemConfiguration;
 import setcov.isula.sample.FileUtils;
+import setcov.isula.sample.InstanceFileReader;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static setcov.isula.sample.AcoSetCoveringWithIsula.PREPROCESING_TIME_LIMIT;
@@ -16,6 +23,9 @@ public class SetCoveringEnvironmentTest {
 
     private final SetCoveringEnvironment environment;
 
+    @TempDir
+    Path checkpointDirectory;
+
     public SetCoveringEnvironmentTest() throws IOException {
         String fileName = "AC_10_cover.txt";
         String dataDirectory = "problem_data/";
@@ -29,7 +39,75 @@ public class SetCoveringEnvironmentTest {
         double[][] pheromoneMatrix = environment.createPheromoneMatrix();
         int numberOfCandidates = 2904;
 
-        assertEquals(numberOfCandidates, pheromoneMatrix.length);
+        assertEquals(1, pheromoneMatrix.length);
+        assertEquals(numberOfCandidates, pheromoneMatrix[0].length);
+    }
+
+    @Test
+    public void testPheromoneTrails() {
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        BaseAntSystemConfiguration configuration = AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration();
+
+        StartPheromoneMatrix<Integer, SetCoveringEnvironment> startPheromoneAction = new StartPheromoneMatrix<>();
+        startPheromoneAction.setEnvironment(colonyEnvironment);
+        startPheromoneAction.applyDaemonAction(configuration);
+        assertSame(colonyEnvironment.getPheromoneMatrix()[0], colonyEnvironment.getPheromoneTrails());
+        assertEquals(configuration.getInitialPheromoneValue(), colonyEnvironment.getPheromoneTrailValue(10), 0.0001);
+
+        SetCoveringEvaporation evaporationAction = new SetCoveringEvaporation();
+        evaporationAction.setEnvironment(colonyEnvironment);
+        evaporationAction.applyDaemonAction(configuration);
+        double evaporatedValue = configuration.getInitialPheromoneValue() * configuration.getEvaporationRatio();
+        assertEquals(evaporatedValue, colonyEnvironment.getPheromoneTrailValue(10), 0.0001);
+
+        SetCoveringSolution solution = SetCoveringSolution.fromList(List.of(10, 20),
+                colonyEnvironment.getNumberOfCandidates());
+        colonyEnvironment.depositPheromone(solution, 0.5);
+        assertEquals(evaporatedValue + 0.5, colonyEnvironment.getPheromoneTrailValue(20), 0.0001);
+        assertEquals(evaporatedValue, colonyEnvironment.getPheromoneTrailValue(30), 0.0001);
+    }
+
+    @Test
+    public void testPowerTables() {
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        colonyEnvironment.populatePheromoneMatrix(2.0);
+
+        double[] pheromonePowers = colonyEnvironment.getPheromonePowers(2.0);
+        assertEquals(4.0, pheromonePowers[10], 0.0001);
+        assertSame(pheromonePowers, colonyEnvironment.getPheromonePowers(2.0));
+        assertEquals(8.0, colonyEnvironment.getPheromonePowers(3.0)[10], 0.0001);
+
+        colonyEnvironment.evaporatePheromoneTrails(0.5);
+        assertEquals(1.0, colonyEnvironment.getPheromonePowers(3.0)[10], 0.0001);
+        colonyEnvironment.depositPheromone(SetCoveringSolution.fromList(List.of(10),
+                colonyEnvironment.getNumberOfCandidates()), 1.0);
+        assertEquals(8.0, colonyEnvironment.getPheromonePowers(3.0)[10], 0.0001);
+
+        int numberOfSamples = colonyEnvironment.getNumberOfSamples();
+        double[] heuristicPowers = colonyEnvironment.getHeuristicPowers(3.0);
+        assertEquals(numberOfSamples + 1, heuristicPowers.length);
+        assertEquals(0.0, heuristicPowers[0], 0.0001);
+        assertEquals(Math.pow(7.0 / numberOfSamples, 3.0), heuristicPowers[7], 0.0000001);
+        assertEquals(1.0, heuristicPowers[numberOfSamples], 0.0001);
+    }
+
+    @Test
+    public void testSharedInstance() {
+        SetCoveringInstance instance = environment.getInstance();
+        SetCoveringEnvironment colonyEnvironment = new SetCoveringEnvironment(environment);
+        SetCoveringEnvironment otherColonyEnvironment = new SetCoveringEnvironment(instance);
+
+        assertSame(instance, colonyEnvironment.getInstance());
+        assertSame(instance, otherColonyEnvironment.getInstance());
+        assertSame(environment.getIncidenceMatrix(), colonyEnvironment.getIncidenceMatrix());
+        assertSame(environment.getCoverageSizes(), otherColonyEnvironment.getCoverageSizes());
+        assertNotSame(colonyEnvironment.getPheromoneMatrix(), otherColonyEnvironment.getPheromoneMatrix());
+        assertThrows(UnsupportedOperationException.class, () -> instance.getDominatedCandidates().add(0));
+
+        colonyEnvironment.setCandidateListSize(5);
+        assertEquals(5, colonyEnvironment.getCandidateListSize());
+        assertEquals(CandidateLists.DEFAULT_LIST_SIZE, otherColonyEnvironment.getCandidateListSize());
+        assertSame(instance.getIncidenceMatrix(), colonyEnvironment.getInstance().getIncidenceMatrix());
     }
 
     @Test
@@ -45,6 +123,31 @@ public class SetCoveringEnvironmentTest {
 
     }
 
+    @Test
+    public void testIncidenceMatrix() {
+
+        IncidenceMatrix incidenceMatrix = environment.getIncidenceMatrix();
+        int candidateIndex = 22;
+        int[] coveredByCandidate = incidenceMatrix.getSamples(candidateIndex);
+        assertEquals(coveredByCandidate.length, incidenceMatrix.getCoverageSize(candidateIndex));
+        assertTrue(Arrays.binarySearch(coveredByCandidate, 2) >= 0);
+        assertTrue(Arrays.binarySearch(coveredByCandidate, 8) < 0);
+
+        int incidences = 0;
+        for (int sampleIndex = 0; sampleIndex < incidenceMatrix.getNumberOfSamples(); sampleIndex += 1) {
+            for (int candidate : incidenceMatrix.getCandidates(sampleIndex)) {
+                assertTrue(environment.getSamplesForNonDominatedCandidate(candidate).contains(sampleIndex));
+                incidences += 1;
+            }
+        }
+        assertEquals(incidenceMatrix.getNumberOfIncidences(), incidences);
+
+        Map<Integer, Set<Integer>> samplesPerCandidate = environment.getSamplesPerCandidate();
+        assertEquals(incidenceMatrix.getNumberOfCandidates(), samplesPerCandidate.size());
+        assertEquals(incidenceMatrix.getCoverageSize(candidateIndex), samplesPerCandidate.get(candidateIndex).size());
+        assertSame(samplesPerCandidate, environment.getSamplesPerCandidate());
+    }
+
     @Test
     public void testFindDominatedCandidates() {
 
@@ -70,6 +173,96 @@ public class SetCoveringEnvironmentTest {
 
     }
 
+    @Test
+    public void testResumeDominanceAnalysis() {
+
+        Path instanceFile = checkpointDirectory.resolve("AC_99_cover.txt");
+
+        SetCoveringPreProcessor interruptedRun = getDominancePreProcessor(Duration.ZERO);
+        interruptedRun.enableDominanceCheckpoints(instanceFile);
+        assertTrue(interruptedRun.findDominatedCandidates().isEmpty());
+
+        SetCoveringPreProcessor resumedRun = getDominancePreProcessor(PREPROCESING_TIME_LIMIT);
+        resumedRun.enableDominanceCheckpoints(instanceFile);
+        assertEquals(Set.of(1, 2), resumedRun.findDominatedCandidates());
+
+        SetCoveringPreProcessor finishedRun = getDominancePreProcessor(Duration.ZERO);
+        finishedRun.enableDominanceCheckpoints(instanceFile);
+        assertEquals(Set.of(1, 2), finishedRun.findDominatedCandidates());
+    }
+
+    private SetCoveringPreProcessor getDominancePreProcessor(Duration preprocessingTimeLimit) {
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(preprocessingTimeLimit);
+        preProcessor.setNumberOfSamples(4);
+        preProcessor.setNumberOfCandidates(4);
+        preProcessor.addCandidatesForSample(0, new String[]{"0"});
+        preProcessor.addCandidatesForSample(1, new String[]{"0", "2", "3"});
+        preProcessor.addCandidatesForSample(2, new String[]{"0", "1", "2", "3"});
+        preProcessor.addCandidatesForSample(3, new String[]{"1", "3"});
+        return preProcessor;
+    }
+
+    @Test
+    public void testDominanceMatchesPairwiseComparison() {
+
+        int numberOfSamples = 40;
+        int numberOfCandidates = 60;
+        Random random = new Random(7);
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(numberOfSamples);
+        preProcessor.setNumberOfCandidates(numberOfCandidates);
+        for (int sampleIndex = 0; sampleIndex < numberOfSamples; sampleIndex += 1) {
+            preProcessor.addCandidatesForSample(sampleIndex, random.ints(1 + random.nextInt(6), 0, numberOfCandidates)
+                    .mapToObj(String::valueOf)
+                    .toArray(String[]::new));
+        }
+
+        Map<Integer, Set<Integer>> samplesPerCandidate = preProcessor.getSamplesPerCandidate();
+        Set<Integer> expectedDominated = new HashSet<>();
+        for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex += 1) {
+            for (int opponentIndex = candidateIndex + 1; opponentIndex < numberOfCandidates; opponentIndex += 1) {
+                Set<Integer> candidateSamples = samplesPerCandidate.get(candidateIndex);
+                Set<Integer> opponentSamples = samplesPerCandidate.get(opponentIndex);
+                if (opponentSamples.size() >= candidateSamples.size() && opponentSamples.containsAll(candidateSamples)) {
+                    expectedDominated.add(candidateIndex);
+                } else if (candidateSamples.size() > opponentSamples.size() &&
+                        candidateSamples.containsAll(opponentSamples)) {
+                    expectedDominated.add(opponentIndex);
+                }
+            }
+        }
+
+        assertEquals(expectedDominated, preProcessor.findDominatedCandidates());
+    }
+
+    @Test
+    public void testRemoveDominatedSamples() {
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(5);
+        preProcessor.setNumberOfCandidates(4);
+        preProcessor.addCandidatesForSample(0, new String[]{"1"});
+        preProcessor.addCandidatesForSample(1, new String[]{"0", "1", "2"});
+        preProcessor.addCandidatesForSample(2, new String[]{"2", "3"});
+        preProcessor.addCandidatesForSample(3, new String[]{"3", "2"});
+        preProcessor.addCandidatesForSample(4, new String[]{"0", "3"});
+
+        assertEquals(2, preProcessor.removeDominatedSamples());
+        assertEquals(3, preProcessor.getNumberOfSamples());
+        assertArrayEquals(new int[]{0, 2, 4}, preProcessor.getOriginalSampleIndexes());
+
+        SetCoveringEnvironment smallEnvironment = new SetCoveringEnvironment(preProcessor, false);
+        assertEquals(3, smallEnvironment.getNumberOfSamples());
+        assertEquals(4, smallEnvironment.getOriginalSampleIndex(2));
+        assertEquals(Set.of(0), smallEnvironment.getSamplesForNonDominatedCandidate(1));
+
+        IncidenceMatrix originalInstance = smallEnvironment.getOriginalIncidenceMatrix();
+        assertEquals(5, originalInstance.getNumberOfSamples());
+        assertTrue(isValidSolution(Arrays.asList(1, 3), originalInstance));
+        assertFalse(isValidSolution(Arrays.asList(1, 2), originalInstance));
+    }
+
     @Test
     public void testGetMandatoryCandidates() {
 
@@ -86,7 +279,111 @@ public class SetCoveringEnvironmentTest {
 
         assertEquals(1, mandatoryCandidates.size());
         assertTrue(mandatoryCandidates.contains(1));
+        assertTrue(smallEnvironment.isMandatoryCandidate(1));
+        assertFalse(smallEnvironment.isMandatoryCandidate(0));
+
+    }
+
+    @Test
+    public void testReductionPipeline() {
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(5);
+        preProcessor.setNumberOfCandidates(6);
+        preProcessor.addCandidatesForSample(0, new String[]{"1", "4"});
+        preProcessor.addCandidatesForSample(1, new String[]{"0", "1", "2"});
+        preProcessor.addCandidatesForSample(2, new String[]{"2", "3", "5"});
+        preProcessor.addCandidatesForSample(3, new String[]{"0", "3", "5"});
+        preProcessor.addCandidatesForSample(4, new String[]{"3", "5"});
+
+        new ReductionPipeline(preProcessor).reduce();
+
+        Set<Integer> fixedCandidates = preProcessor.getFixedCandidates();
+        assertEquals(Set.of(1, 5), fixedCandidates);
+        assertEquals(0, preProcessor.getNumberOfSamples());
+
+        SetCoveringEnvironment reducedEnvironment = new SetCoveringEnvironment(preProcessor);
+        assertEquals(fixedCandidates, reducedEnvironment.getMandatoryCandidates());
+        for (int fixedCandidate : fixedCandidates) {
+            assertFalse(reducedEnvironment.isDominatedCandidate(fixedCandidate));
+        }
+        assertTrue(preProcessor.isDominanceComplete());
+
+        AntForSetCovering ant = new AntForSetCovering(reducedEnvironment);
+        ant.clear();
+        assertTrue(ant.isSolutionReady(reducedEnvironment));
+        assertTrue(isValidSolution(ant.getSolution(), reducedEnvironment.getOriginalIncidenceMatrix()));
+
+        SetCoveringPreProcessor expiredPreProcessor = getDominancePreProcessor(PREPROCESING_TIME_LIMIT);
+        expiredPreProcessor.setDominanceDeadline(Instant.now().minusSeconds(1));
+        new ReductionPipeline(expiredPreProcessor).reduce();
+        assertFalse(expiredPreProcessor.isDominanceComplete());
+        assertTrue(expiredPreProcessor.findDominatedCandidates().isEmpty());
+    }
+
+    @Test
+    public void testInstanceFileReader() throws IOException {
+        Path instanceFile = checkpointDirectory.resolve("instance.txt");
+        Files.writeString(instanceFile, "3 4\n0\n2\n1 3\n1\n1\n0\r\n2\n3\n0  2 3 \n");
+
+        SetCoveringPreProcessor preProcessor = InstanceFileReader.readPreProcessor(instanceFile, PREPROCESING_TIME_LIMIT);
+        assertEquals(3, preProcessor.getNumberOfSamples());
+        assertEquals(4, preProcessor.getNumberOfCandidates());
+        assertArrayEquals(new int[]{1, 3}, preProcessor.getIncidenceMatrix().getCandidates(0));
+        assertArrayEquals(new int[]{0}, preProcessor.getIncidenceMatrix().getCandidates(1));
+        assertArrayEquals(new int[]{0, 2, 3}, preProcessor.getIncidenceMatrix().getCandidates(2));
+
+        Files.writeString(instanceFile, "1 4\n0\n3\n1 3\n");
+        assertThrows(RuntimeException.class,
+                () -> InstanceFileReader.readPreProcessor(instanceFile, PREPROCESING_TIME_LIMIT));
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        byte[] instanceHash = {1, 2, 3};
+        Path snapshotFile = checkpointDirectory.resolve("AC_10_cover.txt.snapshot");
+        assertTrue(SetCoveringSnapshot.save(environment, snapshotFile, instanceHash, true));
+
+        assertNull(SetCoveringSnapshot.load(snapshotFile, new byte[]{1, 2, 4}, true));
+        assertNull(SetCoveringSnapshot.load(snapshotFile, instanceHash, false));
+
+        SetCoveringEnvironment storedEnvironment = SetCoveringSnapshot.load(snapshotFile, instanceHash, true);
+        assertNotNull(storedEnvironment);
+        assertEquals(environment.getNumberOfCandidates(), storedEnvironment.getNumberOfCandidates());
+        assertEquals(environment.getNumberOfSamples(), storedEnvironment.getNumberOfSamples());
+        assertEquals(environment.getIncidenceMatrix().getFingerprint(),
+                storedEnvironment.getIncidenceMatrix().getFingerprint());
+        assertEquals(environment.getDominatedCandidates(), storedEnvironment.getDominatedCandidates());
+        assertEquals(environment.getMandatoryCandidates(), storedEnvironment.getMandatoryCandidates());
+
+        SetCoveringPreProcessor preProcessor = new SetCoveringPreProcessor(PREPROCESING_TIME_LIMIT);
+        preProcessor.setNumberOfSamples(3);
+        preProcessor.setNumberOfCandidates(3);
+        preProcessor.addCandidatesForSample(0, new String[]{"0"});
+        preProcessor.addCandidatesForSample(1, new String[]{"1", "2"});
+        preProcessor.addCandidatesForSample(2, new String[]{"0", "1", "2"});
+        new ReductionPipeline(preProcessor).reduce();
+        SetCoveringEnvironment reducedEnvironment = new SetCoveringEnvironment(preProcessor, true);
+
+        assertTrue(SetCoveringSnapshot.save(reducedEnvironment, snapshotFile, instanceHash, true));
+        storedEnvironment = SetCoveringSnapshot.load(snapshotFile, instanceHash, true);
+        assertNotNull(storedEnvironment);
+        assertEquals(reducedEnvironment.getMandatoryCandidates(), storedEnvironment.getMandatoryCandidates());
+        assertEquals(reducedEnvironment.getOriginalIncidenceMatrix().getFingerprint(),
+                storedEnvironment.getOriginalIncidenceMatrix().getFingerprint());
+        for (int sampleIndex = 0; sampleIndex < reducedEnvironment.getNumberOfSamples(); sampleIndex += 1) {
+            assertEquals(reducedEnvironment.getOriginalSampleIndex(sampleIndex),
+                    storedEnvironment.getOriginalSampleIndex(sampleIndex));
+        }
 
+        Path incompleteSnapshotFile = checkpointDirectory.resolve("AC_99_cover.txt.snapshot");
+        SetCoveringPreProcessor interruptedPreProcessor = getDominancePreProcessor(PREPROCESING_TIME_LIMIT);
+        interruptedPreProcessor.setDominanceDeadline(Instant.now().minusSeconds(1));
+        new ReductionPipeline(interruptedPreProcessor).reduce();
+        SetCoveringEnvironment incompleteEnvironment = new SetCoveringEnvironment(interruptedPreProcessor, true);
+        assertFalse(incompleteEnvironment.getInstance().isDominanceComplete());
+        assertFalse(SetCoveringSnapshot.save(incompleteEnvironment, incompleteSnapshotFile, instanceHash, true));
+        assertFalse(Files.exists(incompleteSnapshotFile));
     }
 
     @Test
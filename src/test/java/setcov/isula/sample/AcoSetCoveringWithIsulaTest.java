@@ -1,15 +1,26 @@
 package setcov.isula.sample;
 
+import isula.aco.setcov.IslandModel;
 import isula.aco.setcov.SetCoveringPreProcessor;
+import isula.aco.tuning.ParameterOptimisationTarget;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AcoSetCoveringWithIsulaTest {
 
+    @TempDir
+    Path temporaryDirectory;
+
     @Test
     public void testReadingSmallProblemFile() throws IOException {
         String fileName = "AC_10_cover.txt";
@@ -35,4 +46,53 @@ public class AcoSetCoveringWithIsulaTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCreateIslandModel() {
+        assertNull(AcoSetCoveringWithIsula.createIslandModel("-f", "AC_10_cover.txt", "0", "600"));
+        assertNull(AcoSetCoveringWithIsula.createIslandModel("-f", "AC_10_cover.txt", "0", "600", "0"));
+
+        IslandModel islandModel = AcoSetCoveringWithIsula.createIslandModel("-f", "AC_10_cover.txt", "0", "600", "10");
+        assertNotNull(islandModel);
+        assertEquals(10, islandModel.getMigrationInterval());
+        assertEquals(IslandModel.Topology.RING, islandModel.getTopology());
+    }
+
+    @Test
+    public void testSuccessiveHalvingTuner() throws IOException {
+        Path instanceFile = temporaryDirectory.resolve("AC_99_cover.txt");
+        Files.writeString(instanceFile, "2 2\n1 0\n1 1\n");
+
+        AtomicInteger evaluations = new AtomicInteger();
+        ParameterOptimisationTarget optimisationTarget = configurationProvider -> {
+            evaluations.incrementAndGet();
+            return Math.abs(configurationProvider.getEvaporationRatio() - 0.5) +
+                    configurationProvider.getHeuristicImportance() / configurationProvider.getNumberOfIterations();
+        };
+
+        SuccessiveHalvingTuner parameterTuner = new SuccessiveHalvingTuner(
+                AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration(), Arrays.asList(.1, .5, .9),
+                Arrays.asList(1., 3., 5.), 1, 9);
+        BaseAntSystemConfiguration optimalConfiguration = parameterTuner.getOptimalConfiguration(optimisationTarget,
+                instanceFile);
+
+        assertEquals(0.5, optimalConfiguration.getEvaporationRatio(), 0.0001);
+        assertEquals(1.0, optimalConfiguration.getHeuristicImportance(), 0.0001);
+        assertEquals(9, optimalConfiguration.getNumberOfIterations());
+        assertEquals(9 + 3, evaluations.get());
+
+        BaseAntSystemConfiguration storedConfiguration = parameterTuner.getOptimalConfiguration(optimisationTarget,
+                instanceFile);
+        assertEquals(9 + 3, evaluations.get());
+        assertEquals(optimalConfiguration.getEvaporationRatio(), storedConfiguration.getEvaporationRatio(), 0.0001);
+        assertEquals(optimalConfiguration.getNumberOfAnts(), storedConfiguration.getNumberOfAnts());
+
+        Files.writeString(instanceFile, "2 2\n1 1\n1 0\n");
+        parameterTuner.getOptimalConfiguration(optimisationTarget, instanceFile);
+        assertEquals(2 * (9 + 3), evaluations.get());
+
+        SuccessiveHalvingTuner singleConfigurationTuner = new SuccessiveHalvingTuner(
+                AcoSetCoveringWithIsula.getDefaultAntSystemConfiguration(), List.of(.5), List.of(1.), 1, 9, 3);
+        assertEquals(9, singleConfigurationTuner.getOptimalConfiguration(optimisationTarget).getNumberOfIterations());
+    }
+
+}